@@ -0,0 +1,46 @@
+package com.fges.benchmarks;
+
+import com.fges.model.GroceryItem;
+import com.fges.repository.GroceryOperation;
+import com.fges.repository.GroceryRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Préparation et nettoyage des fichiers utilisés par les benchmarks
+ */
+final class BenchmarkFiles {
+    static final String[] CATEGORIES = {"dairy", "bakery", "fruits", "vegetables", "drinks", "default"};
+
+    private BenchmarkFiles() {
+    }
+
+    static String itemName(int index) {
+        return "item-" + index;
+    }
+
+    /**
+     * Remplit le repository avec size articles répartis dans les catégories, en une seule écriture
+     */
+    static void fill(GroceryRepository repository, int size) throws IOException {
+        List<GroceryOperation> operations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            operations.add(GroceryOperation.add(new GroceryItem(itemName(i), i % 10 + 1, CATEGORIES[i % CATEGORIES.length])));
+        }
+        repository.applyAll(operations);
+    }
+
+    static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
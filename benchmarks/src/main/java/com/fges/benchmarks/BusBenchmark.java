@@ -0,0 +1,72 @@
+package com.fges.benchmarks;
+
+import com.fges.commands.RemoveItemCommand;
+import com.fges.core.CommandBus;
+import com.fges.core.EventBus;
+import com.fges.core.QueryBus;
+import com.fges.queries.InfoQuery;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Surcoût des bus seuls : les gestionnaires et abonnés ne font rien
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BusBenchmark {
+
+    @Param({"0", "1", "4"})
+    public int subscribers;
+
+    private CommandBus commandBus;
+    private QueryBus queryBus;
+    private final RemoveItemCommand command = new RemoveItemCommand("milk");
+    private final InfoQuery query = new InfoQuery();
+
+    @Setup
+    public void setUp() {
+        EventBus eventBus = new EventBus();
+        for (int i = 0; i < subscribers; i++) {
+            eventBus.subscribe("RemoveItemEvent", event -> { });
+        }
+
+        commandBus = new CommandBus(eventBus);
+        commandBus.register(RemoveItemCommand.class, removeCommand -> 0);
+
+        queryBus = new QueryBus();
+        queryBus.register(InfoQuery.class, infoQuery -> 0);
+    }
+
+    @Benchmark
+    public int commandDispatch() throws Exception {
+        return commandBus.dispatch(command);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int commandDispatchContended() throws Exception {
+        return commandBus.dispatch(command);
+    }
+
+    @Benchmark
+    public Integer queryDispatch() throws Exception {
+        return queryBus.dispatch(query);
+    }
+}
@@ -0,0 +1,76 @@
+package com.fges.benchmarks;
+
+import com.fges.model.GroceryItem;
+import com.fges.repository.CsvGroceryRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût des opérations du repository CSV selon la taille de la liste
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvRepositoryBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private Path directory;
+    private CsvGroceryRepository repository;
+    private int counter;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("grocery-bench");
+        repository = new CsvGroceryRepository(directory.resolve("groceries.csv").toString());
+        BenchmarkFiles.fill(repository, size);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void addItem() throws IOException {
+        repository.addItem(new GroceryItem("added-" + counter++, 1, "default"));
+    }
+
+    @Benchmark
+    public void removeItem() throws IOException {
+        repository.removeItem(BenchmarkFiles.itemName(counter++ % size));
+    }
+
+    @Benchmark
+    public Map<String, List<GroceryItem>> getAllItems() throws IOException {
+        return repository.getAllItems();
+    }
+
+    @Benchmark
+    public List<GroceryItem> findItems() throws IOException {
+        return repository.findItems(BenchmarkFiles.itemName(counter++ % size));
+    }
+}
@@ -0,0 +1,80 @@
+package com.fges.benchmarks;
+
+import com.fges.model.GroceryItem;
+import com.fges.repository.DurabilityPolicy;
+import com.fges.repository.EventSourcedGroceryRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût du repository event sourcing : ajout au journal, et reprise à froid selon l'intervalle des snapshots
+ * (un intervalle plus grand que l'historique revient à tout rejouer)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSourcedRepositoryBenchmark {
+
+    @Param({"1000", "100000"})
+    public int history;
+
+    @Param({"1000", "100000000"})
+    public int snapshotInterval;
+
+    private Path directory;
+    private String file;
+    private EventSourcedGroceryRepository repository;
+    private int counter;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("grocery-bench");
+        file = directory.resolve("groceries.events").toString();
+        repository = new EventSourcedGroceryRepository(file, snapshotInterval, DurabilityPolicy.NEVER);
+        // Un historique de history événements, un par article, écrit comme autant de commandes
+        for (int i = 0; i < history; i++) {
+            repository.addItem(new GroceryItem(BenchmarkFiles.itemName(i), 1,
+                    BenchmarkFiles.CATEGORIES[i % BenchmarkFiles.CATEGORIES.length]));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void addItem() throws IOException {
+        repository.addItem(new GroceryItem("added-" + counter++, 1, "default"));
+    }
+
+    /**
+     * Ouverture par un nouveau processus : snapshot puis fin du journal
+     */
+    @Benchmark
+    public List<GroceryItem> coldFindItems() throws IOException {
+        return new EventSourcedGroceryRepository(file, snapshotInterval, DurabilityPolicy.NEVER)
+                .findItems(BenchmarkFiles.itemName(counter++ % history));
+    }
+}
@@ -0,0 +1,106 @@
+package com.fges.benchmarks;
+
+import com.fges.repository.JsonGroceryRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temps jusqu'à la première sortie d'une commande lancée dans un nouveau processus, avec ou sans archive CDS.
+ * Le jar et l'archive sont ceux de "./mvnw package -Pcds" (propriétés grocery.jar et grocery.cds pour les changer).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"list", "add"})
+    public String command;
+
+    @Param({"none", "cds"})
+    public String archive;
+
+    private final Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+    private final Path jar = Paths.get(System.getProperty("grocery.jar", "../target/dp-2024-2025__grocery-list-1.0-SNAPSHOT.jar"));
+    private final Path cds = Paths.get(System.getProperty("grocery.cds", "../target/grocery.jsa"));
+
+    private Path directory;
+    private List<String> commandLine;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (!Files.exists(jar)) {
+            throw new IllegalStateException("Application jar not found: " + jar.toAbsolutePath());
+        }
+        if ("cds".equals(archive) && !Files.exists(cds)) {
+            throw new IllegalStateException("CDS archive not found (run ./mvnw package -Pcds): " + cds.toAbsolutePath());
+        }
+
+        directory = Files.createTempDirectory("grocery-bench");
+        String source = directory.resolve("groceries.json").toString();
+        BenchmarkFiles.fill(new JsonGroceryRepository(source), 100);
+
+        commandLine = new ArrayList<>();
+        commandLine.add(java.toString());
+        if ("cds".equals(archive)) {
+            commandLine.add("-XX:SharedArchiveFile=" + cds);
+        }
+        commandLine.addAll(List.of("-jar", jar.toString(), "-s", source));
+        if ("add".equals(command)) {
+            commandLine.addAll(List.of("add", "Milk", "1"));
+        } else {
+            commandLine.add("list");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    /**
+     * Mesure arrêtée au premier octet écrit par la commande
+     */
+    @Benchmark
+    public int timeToFirstOutput() throws IOException {
+        process = new ProcessBuilder(commandLine)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        InputStream output = process.getInputStream();
+        return output.read();
+    }
+
+    /**
+     * Fin du processus hors mesure : la commande suivante ne se trouve pas en concurrence avec celle-ci
+     */
+    @TearDown(Level.Invocation)
+    public void awaitExit() throws Exception {
+        process.getInputStream().transferTo(OutputStream.nullOutputStream());
+        process.waitFor();
+    }
+}
@@ -0,0 +1,83 @@
+package com.fges.benchmarks;
+
+import com.fges.repository.DurabilityPolicy;
+import com.fges.repository.GroceryRepository;
+import com.fges.repository.GroceryRepositoryFactory;
+import com.fges.repository.GroceryTransfer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durée d'une copie complète d'une liste JSON vers chaque format (commandes import/export)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class TransferBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"json", "csv", "bin", "events"})
+    public String targetFormat;
+
+    private Path directory;
+    private GroceryRepository source;
+    private GroceryRepository target;
+
+    @Setup(Level.Trial)
+    public void createSource() throws IOException {
+        directory = Files.createTempDirectory("grocery-bench");
+        source = GroceryRepositoryFactory.createUncachedRepository(directory.resolve("source.json").toString(), "json",
+                DurabilityPolicy.NEVER, null);
+        BenchmarkFiles.fill(source, size);
+    }
+
+    @Setup(Level.Invocation)
+    public void createTarget() throws IOException {
+        Path file = directory.resolve("target." + targetFormat);
+        target = GroceryRepositoryFactory.createUncachedRepository(file.toString(), targetFormat,
+                DurabilityPolicy.NEVER, null);
+        for (Path storage : target.getStorageFiles()) {
+            Files.deleteIfExists(storage);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeTarget() throws IOException {
+        if (target instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public GroceryTransfer.Result transfer() throws IOException {
+        return new GroceryTransfer().transfer(source, target);
+    }
+}
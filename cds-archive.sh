@@ -0,0 +1,57 @@
+#!/bin/bash
+
+# Builds a Class Data Sharing archive for the jar-with-dependencies.
+# The classes are recorded from a single training JVM: a daemon serving add, list, get and remove,
+# so that every command path ends up in the archive.
+#
+# Usage: ./cds-archive.sh [jar] [archive]
+# Then:  java -XX:SharedArchiveFile=target/grocery.jsa -jar target/dp-2024-2025__grocery-list-1.0-SNAPSHOT.jar ...
+
+set -e
+
+JAR=${1:-target/dp-2024-2025__grocery-list-1.0-SNAPSHOT.jar}
+ARCHIVE=${2:-target/grocery.jsa}
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+SOCKET="$WORK/training.sock"
+SOURCE="$WORK/training.json"
+
+echo "Starting training daemon"
+java -XX:ArchiveClassesAtExit="$ARCHIVE" -jar "$JAR" daemon --socket "$SOCKET" 2> "$WORK/daemon.log" &
+DAEMON=$!
+
+# The message is printed once the socket accepts connections
+for _ in $(seq 1 100); do
+    grep -q "Daemon listening" "$WORK/daemon.log" && break
+    sleep 0.1
+done
+if ! grep -q "Daemon listening" "$WORK/daemon.log"; then
+    cat "$WORK/daemon.log" >&2
+    echo "Training daemon did not start" >&2
+    kill "$DAEMON" 2>/dev/null || true
+    exit 1
+fi
+
+train() {
+    java -jar "$JAR" --socket "$SOCKET" -s "$SOURCE" "$@" > /dev/null
+}
+
+echo "Training runs"
+train add Milk 2
+train add Bread 1 -c bakery
+train list
+train list -o jsonl --sort name --limit 1
+train get Milk
+train remove Milk
+train info
+
+# The archive is written when the daemon exits
+kill -TERM "$DAEMON"
+wait "$DAEMON" || true
+
+if [ ! -f "$ARCHIVE" ]; then
+    echo "No archive produced" >&2
+    exit 1
+fi
+echo "CDS archive written to $ARCHIVE"
@@ -0,0 +1,91 @@
+package com.fges;
+
+import com.fges.commands.AddItemCommand;
+import com.fges.commands.BatchCommand;
+import com.fges.commands.RemoveItemCommand;
+import com.fges.core.Command;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lit un lot d'opérations, une par ligne :
+ * "add <article> <quantité> [catégorie]" ou "remove <article>".
+ * Les lignes vides et celles commençant par # sont ignorées ; un article contenant
+ * des espaces s'écrit entre guillemets.
+ */
+public class BatchInputParser {
+
+    public static BatchCommand parse(BufferedReader reader, String defaultCategory) throws IOException {
+        List<Command<?>> commands = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            commands.add(parseLine(tokenize(trimmed), defaultCategory, lineNumber));
+        }
+
+        return new BatchCommand(commands);
+    }
+
+    private static Command<?> parseLine(List<String> tokens, String defaultCategory, int lineNumber) {
+        switch (tokens.get(0).toLowerCase()) {
+            case "add":
+                if (tokens.size() < 3) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": usage add <item_name> <quantity> [category]");
+                }
+                try {
+                    int quantity = Integer.parseInt(tokens.get(2));
+                    String category = tokens.size() > 3 ? tokens.get(3).toLowerCase() : defaultCategory;
+                    return new AddItemCommand(tokens.get(1), quantity, category);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": quantity must be a number");
+                }
+
+            case "remove":
+                if (tokens.size() < 2) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": usage remove <item_name>");
+                }
+                return new RemoveItemCommand(tokens.get(1).toLowerCase());
+
+            default:
+                throw new IllegalArgumentException("Line " + lineNumber + ": unknown operation " + tokens.get(0));
+        }
+    }
+
+    private static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                inToken = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (inToken) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                current.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,99 @@
+package com.fges;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+import com.fges.model.GrocerySummary;
+
+import fr.anthonyquere.MyGroceryShop;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Boutique utilisable depuis plusieurs threads du serveur web.
+ * Les mutations sont sérialisées par un verrou ; les lectures partagent un snapshot immuable
+ * qui n'est reconstruit qu'après une mutation.
+ * Comme en ligne de commande, un article sans catégorie est rangé dans "default", et la suppression compare
+ * les noms normalisés (sans espaces autour, sans tenir compte de la casse) : "milk" supprime "Milk".
+ */
+public class ConcurrentGroceryShop implements MyGroceryShop {
+    private static final String DEFAULT_CATEGORY = "default";
+
+    private final GroceryList groceries = new GroceryList();
+    private final ReentrantLock lock = new ReentrantLock();
+    // null tant qu'aucune lecture n'a reconstruit le snapshot depuis la dernière mutation
+    private volatile List<WebGroceryItem> snapshot = List.of();
+
+    @Override
+    public List<WebGroceryItem> getGroceries() {
+        List<WebGroceryItem> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+
+        lock.lock();
+        try {
+            if (snapshot == null) {
+                List<WebGroceryItem> items = new ArrayList<>(groceries.size());
+                for (GroceryItem item : groceries.toList()) {
+                    items.add(new WebGroceryItem(item.name(), item.quantity(), item.category()));
+                }
+                snapshot = Collections.unmodifiableList(items);
+            }
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addGroceryItem(String name, int quantity, String category) {
+        GroceryItem item = new GroceryItem(name, quantity, category == null ? DEFAULT_CATEGORY : category);
+        lock.lock();
+        try {
+            groceries.add(item);
+            snapshot = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeGroceryItem(String name) {
+        lock.lock();
+        try {
+            if (groceries.remove(name) > 0) {
+                snapshot = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Résumé de la liste, calculé sous verrou en un seul parcours
+     */
+    public GrocerySummary getSummary(int topN) {
+        GrocerySummary.Builder builder = new GrocerySummary.Builder();
+        lock.lock();
+        try {
+            for (GroceryItem item : groceries) {
+                builder.add(item);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return builder.build(topN);
+    }
+
+    @Override
+    public Runtime getRuntime() {
+        return new Runtime(
+            LocalDate.now(),
+            System.getProperty("java.version"),
+            System.getProperty("os.name")
+        );
+    }
+}
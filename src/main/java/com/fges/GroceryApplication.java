@@ -0,0 +1,276 @@
+package com.fges;
+
+import com.fges.commands.AddItemCommand;
+import com.fges.commands.BatchCommand;
+import com.fges.commands.DeleteFileCommand;
+import com.fges.commands.ExportCommand;
+import com.fges.commands.ImportCommand;
+import com.fges.commands.RemoveItemCommand;
+import com.fges.core.CommandBus;
+import com.fges.core.EventBus;
+import com.fges.core.QueryBus;
+import com.fges.handlers.AddItemCommandHandler;
+import com.fges.handlers.BatchCommandHandler;
+import com.fges.handlers.DeleteFileCommandHandler;
+import com.fges.handlers.ExportCommandHandler;
+import com.fges.handlers.GetItemQueryHandler;
+import com.fges.handlers.ImportCommandHandler;
+import com.fges.handlers.InfoQueryHandler;
+import com.fges.handlers.ListItemsQueryHandler;
+import com.fges.handlers.RemoveItemCommandHandler;
+import com.fges.handlers.StatsQueryHandler;
+import com.fges.handlers.SummaryQueryHandler;
+import com.fges.logger.LoggingEventSubscriber;
+import com.fges.metrics.Metrics;
+import com.fges.model.AddPolicy;
+import com.fges.output.OutputFormat;
+import com.fges.projection.GroceryProjection;
+import com.fges.queries.GetItemQuery;
+import com.fges.queries.InfoQuery;
+import com.fges.queries.ListItemsQuery;
+import com.fges.queries.StatsQuery;
+import com.fges.queries.SummaryQuery;
+import com.fges.repository.GroceryReader;
+import com.fges.repository.GroceryRepository;
+import com.fges.repository.GroceryRepositoryFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Contexte de l'application pour une source : repository, bus et gestionnaires sont créés une seule fois
+ * et peuvent servir plusieurs commandes (le démon garde un contexte par source)
+ */
+public class GroceryApplication implements Closeable {
+    private final CommandBus commandBus;
+    private final QueryBus queryBus;
+    private final Supplier<GroceryRepository> repositorySupplier;
+    // Modèle de lecture du démon, absent pour une exécution unique
+    private final GroceryProjection projection;
+    private GroceryRepository repository;
+
+    public GroceryApplication(String sourceFile, String format, OutputFormat outputFormat) {
+        this(sourceFile, format, outputFormat, null);
+    }
+
+    /**
+     * @param metrics registre alimenté par les bus et le repository, null pour ne rien mesurer
+     */
+    public GroceryApplication(String sourceFile, String format, OutputFormat outputFormat, Metrics metrics) {
+        this(sourceFile, format, outputFormat, metrics, false);
+    }
+
+    /**
+     * @param readModel tenir une projection en mémoire pour les requêtes ; ne sert qu'à un contexte qui dure
+     *                  (le démon) : une exécution unique lit le stockage en flux
+     */
+    public GroceryApplication(String sourceFile, String format, OutputFormat outputFormat, Metrics metrics,
+                              boolean readModel) {
+        EventBus eventBus = new EventBus();
+        this.commandBus = new CommandBus(eventBus);
+        this.queryBus = new QueryBus();
+        eventBus.setMetrics(metrics);
+        commandBus.setMetrics(metrics);
+        queryBus.setMetrics(metrics);
+        setupSystem(eventBus, queryBus);
+        // Lue une seule fois : repository, copies en masse et projection appliquent la même politique
+        AddPolicy addPolicy = AddPolicy.configured();
+        this.repositorySupplier = () -> GroceryRepositoryFactory.createRepository(sourceFile, format, addPolicy, metrics);
+
+        // Gestionnaires (et repository) créés au premier envoi : une exécution n'en construit qu'un
+        commandBus.registerLazy(AddItemCommand.class, () -> new AddItemCommandHandler(repository()));
+        commandBus.registerLazy(RemoveItemCommand.class, () -> new RemoveItemCommandHandler(repository()));
+        commandBus.registerLazy(DeleteFileCommand.class, () -> new DeleteFileCommandHandler(repository()));
+        commandBus.registerLazy(BatchCommand.class, () -> new BatchCommandHandler(repository()));
+        commandBus.registerLazy(ImportCommand.class, () -> new ImportCommandHandler(sourceFile, format, addPolicy, metrics));
+        commandBus.registerLazy(ExportCommand.class, () -> new ExportCommandHandler(sourceFile, format, addPolicy, metrics));
+        // Les requêtes lisent la projection tenue à jour par les événements s'il y en a une, sinon le repository,
+        // et écrivent dans la sortie choisie par --output
+        this.projection = readModel ? new GroceryProjection(this::repository, addPolicy) : null;
+        if (projection != null) {
+            projection.subscribeTo(eventBus);
+        }
+        queryBus.registerLazy(ListItemsQuery.class, () -> new ListItemsQueryHandler(reader(), outputFormat));
+        queryBus.registerLazy(GetItemQuery.class, () -> new GetItemQueryHandler(reader(), outputFormat));
+        queryBus.registerLazy(SummaryQuery.class, () -> new SummaryQueryHandler(reader(), outputFormat));
+        queryBus.registerLazy(StatsQuery.class, () -> new StatsQueryHandler(metrics));
+    }
+
+    static void setupSystem(EventBus eventBus, QueryBus queryBus) {
+        // Enregistrer les abonnés aux événements (un seul abonné, sans état, pour tous les événements)
+        LoggingEventSubscriber logger = new LoggingEventSubscriber();
+        eventBus.subscribe("AddItemEvent", logger);
+        eventBus.subscribe("RemoveItemEvent", logger);
+        eventBus.subscribe("DeleteFileEvent", logger);
+
+        // Enregistrer les gestionnaires de requêtes
+        queryBus.registerLazy(InfoQuery.class, InfoQueryHandler::new);
+    }
+
+    private synchronized GroceryRepository repository() {
+        if (repository == null) {
+            repository = repositorySupplier.get();
+        }
+        return repository;
+    }
+
+    private GroceryReader reader() {
+        return projection != null ? projection : repository();
+    }
+
+    /**
+     * Charge le modèle de lecture s'il y en a un et qu'il n'est pas à jour, pour que la requête suivante
+     * soit servie depuis la mémoire
+     */
+    public void warmUp() throws IOException {
+        if (projection != null) {
+            projection.load();
+        }
+    }
+
+    /**
+     * Ferme le repository s'il a été créé : les écritures encore en attente de synchronisation sont forcées sur le disque
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (repository instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Exécute une commande déjà analysée
+     *
+     * @param in entrée lue par "batch" sans fichier (ou avec "-")
+     * @param workingDirectory répertoire par rapport auquel le fichier de "batch" est résolu
+     */
+    public int execute(MyOptions options, InputStream in, Path workingDirectory) throws Exception {
+        String command = options.getCommand();
+        List<String> commandArgs = options.getCommandArgs();
+        // Les écritures faites hors de ce contexte ne doivent pas être attribuées à la commande
+        if (projection != null) {
+            projection.detectExternalChanges();
+        }
+
+        // Exécuter la commande ou la requête appropriée
+        switch (command.toLowerCase()) {
+            case "add":
+                // Vérification des arguments
+                if (commandArgs.size() < 2) {
+                    System.err.println("Missing arguments. Usage: add <item_name> <quantity>");
+                    return 1;
+                }
+
+                String itemName = commandArgs.get(0);
+                int quantity;
+                try {
+                    quantity = Integer.parseInt(commandArgs.get(1));
+                } catch (NumberFormatException e) {
+                    System.err.println("Quantity must be a number");
+                    return 1;
+                }
+
+                return commandBus.dispatch(
+                        new AddItemCommand(itemName, quantity, options.getCategory())
+                );
+
+            case "remove":
+                if (commandArgs.isEmpty()) {
+                    System.err.println("Missing arguments. Usage: remove <item_name>");
+                    return 1;
+                }
+
+                return commandBus.dispatch(
+                        new RemoveItemCommand(commandArgs.get(0).toLowerCase())
+                );
+
+            case "batch":
+                // Lot lu depuis un fichier, ou depuis l'entrée standard sans argument (ou avec "-")
+                BatchCommand batch;
+                try (BufferedReader reader = commandArgs.isEmpty() || "-".equals(commandArgs.get(0))
+                        ? new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))
+                        : Files.newBufferedReader(workingDirectory.resolve(commandArgs.get(0)), StandardCharsets.UTF_8)) {
+                    batch = BatchInputParser.parse(reader, options.getCategory());
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Invalid batch: " + e.getMessage());
+                    return 1;
+                }
+
+                return commandBus.dispatch(batch);
+
+            case "import":
+            case "export":
+                // Le format du fichier vient de son extension, sauf s'il est donné après le nom
+                if (commandArgs.isEmpty()) {
+                    System.err.println("Missing arguments. Usage: " + command.toLowerCase() + " <file> [format]");
+                    return 1;
+                }
+
+                String file = workingDirectory.resolve(commandArgs.get(0)).toString();
+                String fileFormat = commandArgs.size() > 1
+                        ? commandArgs.get(1).toLowerCase()
+                        : GroceryRepositoryFactory.formatOf(file, "json");
+                if ("import".equalsIgnoreCase(command)) {
+                    return commandBus.dispatch(new ImportCommand(file, fileFormat));
+                }
+                return commandBus.dispatch(new ExportCommand(file, fileFormat));
+
+            case "list":
+                // -c ne filtre que s'il est donné explicitement (sinon il vaut "default")
+                return queryBus.dispatch(new ListItemsQuery(new ListItemsQuery.Parameters(
+                        options.isCategorySet() ? options.getCategory() : null,
+                        options.getPrefix(),
+                        options.getOffset(),
+                        options.getLimit(),
+                        options.getSort()
+                )));
+
+            case "get":
+                if (commandArgs.isEmpty()) {
+                    System.err.println("Missing arguments. Usage: get <item_name>");
+                    return 1;
+                }
+
+                return queryBus.dispatch(new GetItemQuery(commandArgs.get(0)));
+
+            case "summary":
+                // Taille du classement optionnelle
+                int topN = SummaryQuery.DEFAULT_TOP;
+                if (!commandArgs.isEmpty()) {
+                    try {
+                        topN = Integer.parseInt(commandArgs.get(0));
+                    } catch (NumberFormatException e) {
+                        System.err.println("Top count must be a number. Usage: summary [top_count]");
+                        return 1;
+                    }
+                }
+                if (topN < 0) {
+                    System.err.println("Top count must not be negative");
+                    return 1;
+                }
+
+                return queryBus.dispatch(new SummaryQuery(topN));
+
+            case "delete":
+                return commandBus.dispatch(new DeleteFileCommand());
+
+            case "info":
+                return queryBus.dispatch(new InfoQuery());
+
+            case "stats":
+                return queryBus.dispatch(new StatsQuery());
+
+            default:
+                System.err.println("Unknown command: " + command);
+                return 1;
+        }
+    }
+}
@@ -4,51 +4,108 @@ import fr.anthonyquere.GroceryShopServer;
 import fr.anthonyquere.MyGroceryShop;
 
 import com.fges.commands.AddItemCommand;
-import com.fges.commands.DeleteFileCommand;
 import com.fges.commands.RemoveItemCommand;
+import com.fges.core.BackpressurePolicy;
 import com.fges.core.CommandBus;
 import com.fges.core.EventBus;
 import com.fges.core.QueryBus;
+import com.fges.daemon.DaemonClient;
+import com.fges.daemon.GroceryDaemon;
 import com.fges.handlers.AddItemCommandHandler;
-import com.fges.handlers.DeleteFileCommandHandler;
-import com.fges.handlers.InfoQueryHandler;
-import com.fges.handlers.ListItemsQueryHandler;
 import com.fges.handlers.RemoveItemCommandHandler;
-import com.fges.logger.LoggingEventSubscriber;
-import com.fges.queries.InfoQuery;
-import com.fges.queries.ListItemsQuery;
-import com.fges.repository.GroceryRepository;
+import com.fges.metrics.Metrics;
+import com.fges.model.AddPolicy;
 import com.fges.repository.GroceryRepositoryFactory;
-
-import org.apache.commons.cli.CommandLine;
-import org.apache.commons.cli.CommandLineParser;
-import org.apache.commons.cli.DefaultParser;
-import org.apache.commons.cli.Options;
-import org.apache.commons.cli.ParseException;
+import com.fges.repository.GroupCommitGroceryRepository;
 
 import java.io.IOException;
-import java.util.List;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 public class Main {
     public static void main(String[] args) throws IOException {
-        MyGroceryShop groceryShop = new SimpleGroceryShop();
+        // Avec des arguments : exécution en ligne de commande, sans démarrer le serveur web
+        if (args.length > 0) {
+            System.exit(exec(args));
+        }
+
+        MyGroceryShop groceryShop = createWebShop();
         GroceryShopServer server = new GroceryShopServer(groceryShop);
         server.start(8080);
 
-        //System.exit(exec(args));
-
         try {
             Thread.currentThread().join();
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         }
+    }
+
+    /**
+     * Boutique du serveur web, configurée par propriétés système :
+     * grocery.store (repository ou memory), grocery.source, grocery.format,
+     * grocery.flushDelayMs (fenêtre de regroupement des écritures), grocery.durability (synchronisation disque),
+     * grocery.addPolicy (fusion des ajouts) et
+     * grocery.events.async / .queue / .threads / .backpressure (livraison des événements)
+     */
+    private static MyGroceryShop createWebShop() throws IOException {
+        if ("memory".equalsIgnoreCase(System.getProperty("grocery.store", "repository"))) {
+            return new ConcurrentGroceryShop();
+        }
 
+        // Métriques exposées par JMX avec -Dgrocery.metrics=true
+        Metrics metrics = Metrics.fromSystemProperties();
+        if (metrics != null) {
+            metrics.registerMBean();
+        }
+
+        AddPolicy addPolicy = AddPolicy.configured();
+        GroupCommitGroceryRepository repository = new GroupCommitGroceryRepository(
+                GroceryRepositoryFactory.createRepository(
+                        System.getProperty("grocery.source", "groceries.json"),
+                        System.getProperty("grocery.format", "json"),
+                        addPolicy,
+                        metrics
+                ),
+                Long.getLong("grocery.flushDelayMs", 5),
+                addPolicy
+        );
 
+        EventBus eventBus = new EventBus();
+        CommandBus commandBus = new CommandBus(eventBus);
+        eventBus.setMetrics(metrics);
+        commandBus.setMetrics(metrics);
+        GroceryApplication.setupSystem(eventBus, new QueryBus());
+        commandBus.register(AddItemCommand.class, new AddItemCommandHandler(repository));
+        commandBus.register(RemoveItemCommand.class, new RemoveItemCommandHandler(repository));
+
+        // Les abonnés lents ne ralentissent pas les requêtes HTTP
+        if (Boolean.parseBoolean(System.getProperty("grocery.events.async", "true"))) {
+            eventBus.enableAsync(
+                    Integer.getInteger("grocery.events.queue", 1024),
+                    Integer.getInteger("grocery.events.threads", 1),
+                    BackpressurePolicy.valueOf(System.getProperty("grocery.events.backpressure", "block").toUpperCase())
+            );
+        }
+
+        // Les mutations et les événements en attente sont traités à l'arrêt du serveur
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            eventBus.shutdown();
+            try {
+                repository.close();
+            } catch (IOException e) {
+                System.err.println("Error flushing grocery list: " + e.getMessage());
+            }
+        }));
+
+        return new RepositoryGroceryShop(repository, commandBus);
     }
 
     public static int exec(String[] args) throws IOException {
-        // Initialiser le système
-        setupSystem();
+        // Client léger : la commande est exécutée par le démon, sans initialiser le système dans ce processus
+        String socket = DaemonClient.socketArgument(args);
+        if (socket != null && !Arrays.asList(args).contains("daemon")) {
+            return DaemonClient.send(Paths.get(socket), args);
+        }
 
         // Parse options
         MyOptions options = new MyOptions();
@@ -56,84 +113,20 @@ public class Main {
             return 1;
         }
 
-        try {
-            return executeCommand(options);
-        } catch (Exception e) {
-            System.err.println("Error: " + e.getMessage());
-            return 1;
+        if ("daemon".equals(options.getCommand())) {
+            return new GroceryDaemon(Paths.get(options.getSocket())).serve();
         }
-    }
-
-    private static void setupSystem() {
-        // Enregistrer les abonnés aux événements
-        EventBus.subscribe("AddItemEvent", new LoggingEventSubscriber());
-        EventBus.subscribe("RemoveItemEvent", new LoggingEventSubscriber());
-        EventBus.subscribe("DeleteFileEvent", new LoggingEventSubscriber());
-
-        // Enregistrer les gestionnaires de requêtes
-        QueryBus.register(InfoQuery.class, new InfoQueryHandler());
-    }
 
-    private static int executeCommand(MyOptions options) throws Exception {
-        String command = options.getCommand();
-        List<String> commandArgs = options.getCommandArgs();
-
-        // Créer le repository approprié
-        GroceryRepository repository = GroceryRepositoryFactory.createRepository(
+        try (GroceryApplication application = new GroceryApplication(
                 options.getSourceFile(),
-                options.getFormat()
-        );
-
-        // Enregistrer les gestionnaires qui ont besoin du repository
-        CommandBus.register(AddItemCommand.class, new AddItemCommandHandler(repository));
-        CommandBus.register(RemoveItemCommand.class, new RemoveItemCommandHandler(repository));
-        CommandBus.register(DeleteFileCommand.class, new DeleteFileCommandHandler(repository));
-        QueryBus.register(ListItemsQuery.class, new ListItemsQueryHandler(repository));
-
-        // Exécuter la commande ou la requête appropriée
-        switch (command.toLowerCase()) {
-            case "add":
-                // Vérification des arguments
-                if (commandArgs.size() < 2) {
-                    System.err.println("Missing arguments. Usage: add <item_name> <quantity>");
-                    return 1;
-                }
-
-                String itemName = commandArgs.get(0);
-                int quantity;
-                try {
-                    quantity = Integer.parseInt(commandArgs.get(1));
-                } catch (NumberFormatException e) {
-                    System.err.println("Quantity must be a number");
-                    return 1;
-                }
-
-                return CommandBus.dispatch(
-                        new AddItemCommand(itemName, quantity, options.getCategory())
-                );
-
-            case "remove":
-                if (commandArgs.isEmpty()) {
-                    System.err.println("Missing arguments. Usage: remove <item_name>");
-                    return 1;
-                }
-
-                return CommandBus.dispatch(
-                        new RemoveItemCommand(commandArgs.get(0).toLowerCase())
-                );
-
-            case "list":
-                return QueryBus.dispatch(new ListItemsQuery());
-
-            case "delete":
-                return CommandBus.dispatch(new DeleteFileCommand());
-
-            case "info":
-                return QueryBus.dispatch(new InfoQuery());
-
-            default:
-                System.err.println("Unknown command: " + command);
-                return 1;
+                options.getFormat(),
+                options.getOutputFormat(),
+                Metrics.fromSystemProperties()
+        )) {
+            return application.execute(options, System.in, Paths.get(""));
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            return 1;
         }
     }
-}
\ No newline at end of file
+}
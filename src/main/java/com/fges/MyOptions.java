@@ -1,5 +1,8 @@
 package com.fges;
 
+import com.fges.output.OutputFormat;
+import com.fges.queries.ListItemsQuery;
+
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -14,6 +17,13 @@ public class MyOptions {
     private String sourceFile;
     private String format = "json"; // Default format is JSON
     private String category = "default"; // Default category is "default"
+    private boolean categorySet = false;
+    private String prefix;
+    private int offset = 0;
+    private Integer limit;
+    private ListItemsQuery.Sort sort = ListItemsQuery.Sort.NONE;
+    private OutputFormat outputFormat = OutputFormat.TEXT;
+    private String socket;
     private String command;
     private List<String> commandArgs;
     private boolean isInfoCommand = false;
@@ -25,30 +35,53 @@ public class MyOptions {
     }
 
     private void setupOptions() {
-        options.addRequiredOption("s", "source", true, "File containing the grocery list");
-        options.addOption("f", "format", true, "Format of the file containing the list (json or csv)");
+        options.addOption("s", "source", true, "File containing the grocery list");
+        options.addOption("f", "format", true, "Format of the file containing the list (json, csv, bin or events)");
         options.addOption("c", "category", true, "Category of the item to add");
         options.addOption("i", "info", false, "Display information about the program");
+        options.addOption("o", "output", true, "Output format of the queries (text or jsonl)");
+        options.addOption(null, "prefix", true, "Only list items whose name starts with this prefix");
+        options.addOption(null, "offset", true, "Number of items to skip when listing");
+        options.addOption(null, "limit", true, "Maximum number of items to list");
+        options.addOption(null, "sort", true, "Order of the items in each category when listing (name or quantity)");
+        options.addOption(null, "socket", true, "Unix socket of the daemon (runs the command in the daemon, or where 'daemon' listens)");
     }
 
     public boolean parse(String[] args) {
         try {
             CommandLine cmd = parser.parse(options, args);
             
-            // Vérifier d'abord si c'est une commande info
+            // Vérifier d'abord si c'est une commande info (ou stats, qui ne lit pas non plus de liste)
             List<String> positionalArgs = cmd.getArgList();
-            if (!positionalArgs.isEmpty() && "info".equals(positionalArgs.get(0))) {
-                command = "info";
+            if (!positionalArgs.isEmpty() && ("info".equals(positionalArgs.get(0)) || "stats".equals(positionalArgs.get(0)))) {
+                command = positionalArgs.get(0);
                 commandArgs = positionalArgs.subList(1, positionalArgs.size());
-                isInfoCommand = true;
+                isInfoCommand = "info".equals(command);
                 
-                // Pour info, on utilise des valeurs par défaut pour les options requises
+                // Pour info et stats, on utilise des valeurs par défaut pour les options requises
                 sourceFile = "groceries.json";
                 return true;
             }
             
+            // Le démon n'a pas de source : chaque client envoie la sienne
+            if (!positionalArgs.isEmpty() && "daemon".equals(positionalArgs.get(0))) {
+                command = "daemon";
+                commandArgs = positionalArgs.subList(1, positionalArgs.size());
+                socket = cmd.getOptionValue("socket");
+                if (socket == null) {
+                    System.err.println("Fail to parse arguments: Missing required option: socket");
+                    return false;
+                }
+                return true;
+            }
+
             // Sinon, comportement normal pour les autres commandes
+            if (!cmd.hasOption("s")) {
+                System.err.println("Fail to parse arguments: Missing required option: s");
+                return false;
+            }
             sourceFile = cmd.getOptionValue("s");
+            socket = cmd.getOptionValue("socket");
             
             // Format est optionnel
             if (cmd.hasOption("f")) {
@@ -57,6 +90,42 @@ public class MyOptions {
 
             if (cmd.hasOption("c")) {
                 category = cmd.getOptionValue("c").toLowerCase();
+                categorySet = true;
+            }
+
+            if (cmd.hasOption("o")) {
+                try {
+                    outputFormat = OutputFormat.valueOf(cmd.getOptionValue("o").toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Unknown output format: " + cmd.getOptionValue("o") + " (expected text or jsonl)");
+                    return false;
+                }
+            }
+
+            // Options de la commande list
+            prefix = cmd.getOptionValue("prefix");
+            try {
+                if (cmd.hasOption("offset")) {
+                    offset = Integer.parseInt(cmd.getOptionValue("offset"));
+                }
+                if (cmd.hasOption("limit")) {
+                    limit = Integer.parseInt(cmd.getOptionValue("limit"));
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Offset and limit must be numbers");
+                return false;
+            }
+            if (offset < 0 || (limit != null && limit < 0)) {
+                System.err.println("Offset and limit must not be negative");
+                return false;
+            }
+            if (cmd.hasOption("sort")) {
+                try {
+                    sort = ListItemsQuery.Sort.valueOf(cmd.getOptionValue("sort").toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Unknown sort order: " + cmd.getOptionValue("sort") + " (expected name or quantity)");
+                    return false;
+                }
             }
 
             if (cmd.hasOption("i")) {
@@ -65,7 +134,8 @@ public class MyOptions {
             }
     
             // Ajoute l'extension si elle manque
-            if (!(sourceFile.endsWith(".json") || sourceFile.endsWith(".csv"))) {
+            if (!(sourceFile.endsWith(".json") || sourceFile.endsWith(".csv") || sourceFile.endsWith(".bin")
+                    || sourceFile.endsWith(".events"))) {
                 sourceFile += "." + format;
             }
     
@@ -111,6 +181,37 @@ public class MyOptions {
         this.category = category;
     }
 
+    /**
+     * Indique si la catégorie a été donnée explicitement (elle filtre alors la commande list)
+     */
+    public boolean isCategorySet() {
+        return categorySet;
+    }
+
+    public String getSocket() {
+        return socket;
+    }
+
+    public OutputFormat getOutputFormat() {
+        return outputFormat;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public ListItemsQuery.Sort getSort() {
+        return sort;
+    }
+
     public String getCommand() {
         return command;
     }
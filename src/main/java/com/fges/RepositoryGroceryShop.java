@@ -0,0 +1,106 @@
+package com.fges;
+
+import com.fges.commands.AddItemCommand;
+import com.fges.commands.RemoveItemCommand;
+import com.fges.core.Command;
+import com.fges.core.CommandBus;
+import com.fges.model.GroceryItem;
+import com.fges.model.GrocerySummary;
+import com.fges.repository.GroceryRepository;
+
+import fr.anthonyquere.MyGroceryShop;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Boutique du serveur web adossée au repository : les mutations passent par le CommandBus
+ * comme en ligne de commande, la liste est relue depuis le repository.
+ */
+public class RepositoryGroceryShop implements MyGroceryShop {
+    private final GroceryRepository repository;
+    private final CommandBus commandBus;
+    // Incrémentée par chaque mutation : un snapshot d'une version antérieure n'est plus servi
+    private final AtomicLong version = new AtomicLong();
+    // Snapshot partagé entre les lectures
+    private volatile Snapshot snapshot = new Snapshot(-1, List.of());
+
+    public RepositoryGroceryShop(GroceryRepository repository, CommandBus commandBus) {
+        this.repository = repository;
+        this.commandBus = commandBus;
+    }
+
+    @Override
+    public List<WebGroceryItem> getGroceries() {
+        long currentVersion = version.get();
+        Snapshot current = snapshot;
+        if (current.version() == currentVersion) {
+            return current.items();
+        }
+
+        try {
+            List<WebGroceryItem> items = new ArrayList<>();
+            for (List<GroceryItem> category : repository.getAllItems().values()) {
+                for (GroceryItem item : category) {
+                    items.add(new WebGroceryItem(item.name(), item.quantity(), item.category()));
+                }
+            }
+            List<WebGroceryItem> result = Collections.unmodifiableList(items);
+            snapshot = new Snapshot(currentVersion, result);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void addGroceryItem(String name, int quantity, String category) {
+        dispatch(new AddItemCommand(name, quantity, category), "Could not add item: " + name);
+    }
+
+    @Override
+    public void removeGroceryItem(String name) {
+        dispatch(new RemoveItemCommand(name), "Could not remove item: " + name);
+    }
+
+    /**
+     * Résumé de la liste, calculé en un seul parcours du repository (sans construire la liste web)
+     */
+    public GrocerySummary getSummary(int topN) {
+        try {
+            return repository.summarize(topN);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Runtime getRuntime() {
+        return new Runtime(
+            LocalDate.now(),
+            System.getProperty("java.version"),
+            System.getProperty("os.name")
+        );
+    }
+
+    private <C extends Command<P>, P> void dispatch(C command, String errorMessage) {
+        try {
+            if (commandBus.dispatch(command) != 0) {
+                throw new IllegalStateException(errorMessage);
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(errorMessage, e);
+        } finally {
+            version.incrementAndGet();
+        }
+    }
+
+    private record Snapshot(long version, List<WebGroceryItem> items) {
+    }
+}
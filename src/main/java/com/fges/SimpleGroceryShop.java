@@ -1,26 +1,41 @@
 package com.fges;
 
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+
 import fr.anthonyquere.MyGroceryShop;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Boutique en mémoire pour le serveur web.
+ * Comme en ligne de commande, un article sans catégorie est rangé dans "default", et la suppression compare
+ * les noms normalisés (sans espaces autour, sans tenir compte de la casse) : "milk" supprime "Milk".
+ */
 public class SimpleGroceryShop implements MyGroceryShop {
-    private final List<WebGroceryItem> groceries = new ArrayList<>();
+    private static final String DEFAULT_CATEGORY = "default";
+
+    // Liste indexée par nom : la suppression ne parcourt plus tous les articles
+    private final GroceryList groceries = new GroceryList();
 
     @Override
     public List<WebGroceryItem> getGroceries() {
-        return new ArrayList<>(groceries);
+        List<WebGroceryItem> items = new ArrayList<>(groceries.size());
+        for (GroceryItem item : groceries.toList()) {
+            items.add(new WebGroceryItem(item.name(), item.quantity(), item.category()));
+        }
+        return items;
     }
 
     @Override
     public void addGroceryItem(String name, int quantity, String category) {
-        groceries.add(new WebGroceryItem(name, quantity, category));
+        groceries.add(new GroceryItem(name, quantity, category == null ? DEFAULT_CATEGORY : category));
     }
 
     @Override
     public void removeGroceryItem(String name) {
-        groceries.removeIf(item -> item.name().equals(name));
+        groceries.remove(name);
     }
 
     @Override
@@ -31,4 +46,4 @@ public class SimpleGroceryShop implements MyGroceryShop {
             System.getProperty("os.name")
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package com.fges.commands;
+
+import com.fges.core.Command;
+import com.fges.core.CompositeCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Commande pour appliquer plusieurs ajouts et suppressions en une seule écriture
+ */
+public class BatchCommand implements Command<BatchCommand.Payload>, CompositeCommand {
+    private final List<Command<?>> commands;
+
+    public BatchCommand(List<Command<?>> commands) {
+        this.commands = List.copyOf(commands);
+    }
+
+    @Override
+    public Payload getPayload() {
+        List<Object> payloads = new ArrayList<>(commands.size());
+        for (Command<?> command : commands) {
+            payloads.add(command.getPayload());
+        }
+        return new Payload(payloads);
+    }
+
+    @Override
+    public List<Command<?>> getCommands() {
+        return commands;
+    }
+
+    public static class Payload {
+        private final List<Object> payloads;
+
+        public Payload(List<Object> payloads) {
+            this.payloads = payloads;
+        }
+
+        public List<Object> getPayloads() {
+            return payloads;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.fges.commands;
+
+import com.fges.core.Command;
+
+/**
+ * Commande pour copier tous les articles de la liste dans un autre fichier, quel que soit son format
+ */
+public class ExportCommand implements Command<ExportCommand.Payload> {
+    private final String fileName;
+    private final String format;
+
+    public ExportCommand(String fileName, String format) {
+        this.fileName = fileName;
+        this.format = format;
+    }
+
+    @Override
+    public Payload getPayload() {
+        return new Payload(fileName, format);
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public static class Payload {
+        private final String fileName;
+        private final String format;
+
+        public Payload(String fileName, String format) {
+            this.fileName = fileName;
+            this.format = format;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getFormat() {
+            return format;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.fges.commands;
+
+import com.fges.core.Command;
+
+/**
+ * Commande pour ajouter à la liste tous les articles d'un autre fichier, quel que soit son format
+ */
+public class ImportCommand implements Command<ImportCommand.Payload> {
+    private final String fileName;
+    private final String format;
+
+    public ImportCommand(String fileName, String format) {
+        this.fileName = fileName;
+        this.format = format;
+    }
+
+    @Override
+    public Payload getPayload() {
+        return new Payload(fileName, format);
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public static class Payload {
+        private final String fileName;
+        private final String format;
+
+        public Payload(String fileName, String format) {
+            this.fileName = fileName;
+            this.format = format;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getFormat() {
+            return format;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.fges.core;
+
+/**
+ * Comportement de l'EventBus asynchrone quand sa file d'attente est pleine
+ */
+public enum BackpressurePolicy {
+    // L'éditeur attend qu'une place se libère
+    BLOCK,
+    // L'événement est abandonné (et compté)
+    DROP,
+    // L'éditeur livre lui-même l'événement
+    CALLER_RUNS
+}
@@ -1,37 +1,134 @@
 package com.fges.core;
 
+import com.fges.metrics.Metrics;
+
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
- * Bus de commandes simplifié qui dirige les commandes vers leurs gestionnaires
+ * Bus de commandes simplifié qui dirige les commandes vers leurs gestionnaires.
+ * Le registre est copié à chaque enregistrement : dispatch() lit un snapshot immuable sans verrou.
  */
 public class CommandBus {
-    private static final Map<Class<?>, CommandHandler<?, ?>> handlers = new HashMap<>();
+    private final EventBus eventBus;
+    private volatile Map<Class<?>, CommandHandler<?, ?>> handlers = Map.of();
+    // null : aucune mesure, dispatch() ne lit même pas l'horloge
+    private volatile Metrics metrics;
+
+    public CommandBus(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    public synchronized <C extends Command<P>, P> void register(Class<C> commandClass, CommandHandler<C, P> handler) {
+        Map<Class<?>, CommandHandler<?, ?>> updated = new HashMap<>(handlers);
+        updated.put(commandClass, handler);
+        handlers = Map.copyOf(updated);
+    }
+
+    /**
+     * Le gestionnaire n'est créé qu'au premier envoi d'une commande de ce type
+     * (une exécution en ligne de commande n'en utilise qu'un seul)
+     */
+    public <C extends Command<P>, P> void registerLazy(Class<C> commandClass, Supplier<? extends CommandHandler<C, P>> factory) {
+        register(commandClass, new LazyCommandHandler<>(factory));
+    }
+
+    /**
+     * Mesure la durée des envois (ex. command.AddItemCommand), de leurs gestionnaires (.handler) et compte les échecs (.failures)
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
 
-    public static <C extends Command<P>, P> void register(Class<C> commandClass, CommandHandler<C, P> handler) {
-        handlers.put(commandClass, handler);
+    public <C extends Command<P>, P> int dispatch(C command) throws Exception {
+        Metrics current = metrics;
+        if (current == null) {
+            return dispatch(command, null, null);
+        }
+
+        String name = "command." + command.getClass().getSimpleName();
+        long start = System.nanoTime();
+        int result = 1;
+        try {
+            result = dispatch(command, current, name);
+            return result;
+        } finally {
+            current.recordTime(name, start);
+            if (result != 0) {
+                current.increment(name + ".failures");
+            }
+        }
     }
 
     @SuppressWarnings("unchecked")
-    public static <C extends Command<P>, P> int dispatch(C command) throws Exception {
+    private <C extends Command<P>, P> int dispatch(C command, Metrics current, String name) throws Exception {
         CommandHandler<C, P> handler = (CommandHandler<C, P>) handlers.get(command.getClass());
         if (handler == null) {
             throw new IllegalArgumentException("No handler registered for " + command.getClass().getName());
         }
 
-        int result = handler.handle(command);
+        int result;
+        if (current == null) {
+            result = handler.handle(command);
+        } else {
+            long start = System.nanoTime();
+            try {
+                result = handler.handle(command);
+            } finally {
+                current.recordTime(name + ".handler", start);
+            }
+        }
 
         // Si la commande a réussi, publier un événement correspondant
         if (result == 0) {
-            String eventName = command.getClass().getSimpleName().replace("Command", "Event");
-            Event event = new GenericEvent(eventName, command.getPayload());
-            EventBus.publish(event);
+            if (command instanceof CompositeCommand composite) {
+                // Un événement par commande du lot, comme si elles avaient été envoyées une à une
+                for (Command<?> subCommand : composite.getCommands()) {
+                    publishEvent(subCommand);
+                }
+            } else {
+                publishEvent(command);
+            }
         }
 
         return result;
     }
 
+    private void publishEvent(Command<?> command) {
+        String eventName = command.getClass().getSimpleName().replace("Command", "Event");
+        Event event = new GenericEvent(eventName, command.getPayload());
+        eventBus.publish(event);
+    }
+
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+
+    private static final class LazyCommandHandler<C extends Command<P>, P> implements CommandHandler<C, P> {
+        private final Supplier<? extends CommandHandler<C, P>> factory;
+        private volatile CommandHandler<C, P> handler;
+
+        LazyCommandHandler(Supplier<? extends CommandHandler<C, P>> factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public int handle(C command) throws Exception {
+            CommandHandler<C, P> current = handler;
+            if (current == null) {
+                synchronized (this) {
+                    current = handler;
+                    if (current == null) {
+                        current = factory.get();
+                        handler = current;
+                    }
+                }
+            }
+            return current.handle(command);
+        }
+    }
+
     // Événement générique pour simplifier l'implémentation
     private static class GenericEvent implements Event {
         private final String name;
@@ -52,4 +149,4 @@ public class CommandBus {
             return payload;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package com.fges.core;
+
+import java.util.List;
+
+/**
+ * Commande qui regroupe plusieurs commandes : le CommandBus publie un événement pour chacune d'elles
+ */
+public interface CompositeCommand {
+    List<Command<?>> getCommands();
+}
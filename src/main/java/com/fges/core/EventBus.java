@@ -1,29 +1,215 @@
 package com.fges.core;
 
+import com.fges.metrics.Metrics;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Bus d'événements simplifié
+ * Bus d'événements simplifié.
+ * Par défaut les abonnés sont appelés sur le thread de l'éditeur ; enableAsync() confie
+ * la livraison à des threads dédiés alimentés par une file bornée.
  */
 public class EventBus {
-    private static final Map<String, List<EventSubscriber>> subscribers = new HashMap<>();
+    // Snapshot immuable remplacé à chaque abonnement : publish() le lit sans verrou
+    private volatile Map<String, List<EventSubscriber>> subscribers = Map.of();
+
+    private volatile ThreadPoolExecutor dispatcher;
+    private final AtomicInteger pendingEvents = new AtomicInteger();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final Object drained = new Object();
+    private volatile Metrics metrics;
 
-    public static void subscribe(String eventName, EventSubscriber subscriber) {
-        subscribers.computeIfAbsent(eventName, k -> new ArrayList<>()).add(subscriber);
+    public synchronized void subscribe(String eventName, EventSubscriber subscriber) {
+        Map<String, List<EventSubscriber>> updated = new HashMap<>(subscribers);
+        List<EventSubscriber> eventSubscribers = new ArrayList<>(updated.getOrDefault(eventName, List.of()));
+        eventSubscribers.add(subscriber);
+        updated.put(eventName, List.copyOf(eventSubscribers));
+        subscribers = Map.copyOf(updated);
+    }
+
+    /**
+     * Mesure la publication (ex. event.AddItemEvent) et la livraison aux abonnés (.delivery),
+     * qui se confondent en mode synchrone
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void publish(Event event) {
+        Metrics current = metrics;
+        if (current == null) {
+            enqueue(event);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            enqueue(event);
+        } finally {
+            current.recordTime("event." + event.getName(), start);
+            current.increment("events.published");
+        }
     }
 
-    public static void publish(Event event) {
-        if (subscribers.containsKey(event.getName())) {
-            subscribers.get(event.getName()).forEach(subscriber -> {
+    private void enqueue(Event event) {
+        ThreadPoolExecutor current = dispatcher;
+        if (current == null) {
+            deliver(event);
+            return;
+        }
+
+        pendingEvents.incrementAndGet();
+        try {
+            current.execute(() -> {
                 try {
-                    subscriber.handle(event);
-                } catch (Exception e) {
-                    System.err.println("Error handling event: " + e.getMessage());
+                    deliver(event);
+                } finally {
+                    eventDone();
                 }
             });
+        } catch (RejectedExecutionException e) {
+            // Bus arrêté pendant la publication : on livre sur le thread courant
+            eventDone();
+            deliver(event);
+        }
+    }
+
+    /**
+     * Active la livraison asynchrone.
+     * Avec un seul thread, les événements sont livrés dans l'ordre de publication.
+     */
+    public synchronized void enableAsync(int queueCapacity, int threads, BackpressurePolicy policy) {
+        if (dispatcher != null) {
+            shutdown();
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        dispatcher = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "event-dispatcher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                rejectionHandler(policy)
+        );
+    }
+
+    /**
+     * Attend que tous les événements publiés aient été livrés
+     */
+    public void flush() throws InterruptedException {
+        synchronized (drained) {
+            while (pendingEvents.get() > 0) {
+                drained.wait();
+            }
+        }
+    }
+
+    /**
+     * Livre les événements en attente, arrête les threads de livraison et revient au mode synchrone.
+     * Un événement publié pendant l'arrêt est livré sur le thread de l'éditeur, quelle que soit la politique.
+     */
+    public synchronized void shutdown() {
+        ThreadPoolExecutor current = dispatcher;
+        if (current == null) {
+            return;
+        }
+
+        dispatcher = null;
+        current.shutdown();
+        try {
+            current.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    private void deliver(Event event) {
+        List<EventSubscriber> eventSubscribers = subscribers.get(event.getName());
+        Metrics current = metrics;
+        if (current != null && eventSubscribers != null) {
+            long start = System.nanoTime();
+            try {
+                deliverTo(eventSubscribers, event);
+            } finally {
+                current.recordTime("event." + event.getName() + ".delivery", start);
+            }
+        } else if (eventSubscribers != null) {
+            deliverTo(eventSubscribers, event);
+        }
+    }
+
+    private static void deliverTo(List<EventSubscriber> eventSubscribers, Event event) {
+        eventSubscribers.forEach(subscriber -> {
+            try {
+                subscriber.handle(event);
+            } catch (Exception e) {
+                System.err.println("Error handling event: " + e.getMessage());
+            }
+        });
+    }
+
+    private void eventDone() {
+        if (pendingEvents.decrementAndGet() == 0) {
+            synchronized (drained) {
+                drained.notifyAll();
+            }
+        }
+    }
+
+    private RejectedExecutionHandler rejectionHandler(BackpressurePolicy policy) {
+        switch (policy) {
+            case DROP:
+                return (task, executor) -> {
+                    // Après l'arrêt, la file n'est pas pleine : l'événement est livré sur le thread de l'éditeur
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("Event bus is shut down");
+                    }
+                    droppedEvents.incrementAndGet();
+                    eventDone();
+                };
+            case CALLER_RUNS:
+                return (task, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("Event bus is shut down");
+                    }
+                    task.run();
+                };
+            case BLOCK:
+            default:
+                return (task, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("Event bus is shut down");
+                    }
+                    try {
+                        executor.getQueue().put(task);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for the event queue", e);
+                    }
+                    // Arrêt pendant l'attente : les threads ont pu se terminer sans voir la tâche,
+                    // qui est alors exécutée ici (sinon un thread l'a déjà prise)
+                    if (executor.isShutdown() && executor.getQueue().remove(task)) {
+                        task.run();
+                    }
+                };
         }
     }
-}
\ No newline at end of file
+}
@@ -1,25 +1,89 @@
 package com.fges.core;
 
+import com.fges.metrics.Metrics;
+
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
- * Bus de requêtes simplifié qui dirige les requêtes vers leurs gestionnaires
+ * Bus de requêtes simplifié qui dirige les requêtes vers leurs gestionnaires.
+ * Le registre est copié à chaque enregistrement : dispatch() lit un snapshot immuable sans verrou.
  */
 public class QueryBus {
-    private static final Map<Class<?>, QueryHandler<?, ?, ?>> handlers = new HashMap<>();
+    private volatile Map<Class<?>, QueryHandler<?, ?, ?>> handlers = Map.of();
+    // null : aucune mesure, dispatch() ne lit même pas l'horloge
+    private volatile Metrics metrics;
+
+    public synchronized <Q extends Query<P>, P, R> void register(Class<Q> queryClass, QueryHandler<Q, P, R> handler) {
+        Map<Class<?>, QueryHandler<?, ?, ?>> updated = new HashMap<>(handlers);
+        updated.put(queryClass, handler);
+        handlers = Map.copyOf(updated);
+    }
 
-    public static <Q extends Query<P>, P, R> void register(Class<Q> queryClass, QueryHandler<Q, P, R> handler) {
-        handlers.put(queryClass, handler);
+    /**
+     * Le gestionnaire n'est créé qu'au premier envoi d'une requête de ce type
+     */
+    public <Q extends Query<P>, P, R> void registerLazy(Class<Q> queryClass, Supplier<? extends QueryHandler<Q, P, R>> factory) {
+        register(queryClass, new LazyQueryHandler<>(factory));
+    }
+
+    /**
+     * Mesure la durée des requêtes (ex. query.ListItemsQuery) et compte celles qui échouent (.failures)
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
     }
 
     @SuppressWarnings("unchecked")
-    public static <Q extends Query<P>, P, R> R dispatch(Q query) throws Exception {
+    public <Q extends Query<P>, P, R> R dispatch(Q query) throws Exception {
         QueryHandler<Q, P, R> handler = (QueryHandler<Q, P, R>) handlers.get(query.getClass());
         if (handler == null) {
             throw new IllegalArgumentException("No handler registered for " + query.getClass().getName());
         }
 
-        return handler.handle(query);
+        Metrics current = metrics;
+        if (current == null) {
+            return handler.handle(query);
+        }
+
+        String name = "query." + query.getClass().getSimpleName();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            R result = handler.handle(query);
+            // Les gestionnaires de la ligne de commande renvoient un code de retour
+            failed = result instanceof Integer code && code != 0;
+            return result;
+        } finally {
+            current.recordTime(name, start);
+            if (failed) {
+                current.increment(name + ".failures");
+            }
+        }
+    }
+
+    private static final class LazyQueryHandler<Q extends Query<P>, P, R> implements QueryHandler<Q, P, R> {
+        private final Supplier<? extends QueryHandler<Q, P, R>> factory;
+        private volatile QueryHandler<Q, P, R> handler;
+
+        LazyQueryHandler(Supplier<? extends QueryHandler<Q, P, R>> factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public R handle(Q query) throws Exception {
+            QueryHandler<Q, P, R> current = handler;
+            if (current == null) {
+                synchronized (this) {
+                    current = handler;
+                    if (current == null) {
+                        current = factory.get();
+                        handler = current;
+                    }
+                }
+            }
+            return current.handle(query);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,83 @@
+package com.fges.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Client léger : transmet la ligne de commande au démon et recopie ses sorties.
+ * Aucune option n'est analysée et aucun gestionnaire n'est créé dans le processus client.
+ */
+public final class DaemonClient {
+
+    private DaemonClient() {
+    }
+
+    /**
+     * Valeur de --socket, sans analyser le reste de la ligne de commande
+     */
+    public static String socketArgument(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if ("--socket".equals(args[i]) && i + 1 < args.length) {
+                return args[i + 1];
+            }
+            if (args[i].startsWith("--socket=")) {
+                return args[i].substring("--socket=".length());
+            }
+        }
+        return null;
+    }
+
+    public static int send(Path socketPath, String[] args) throws IOException {
+        // L'entrée standard n'est transmise que si "batch" doit la lire
+        byte[] input = readsStandardInput(args) ? System.in.readAllBytes() : null;
+        String workingDirectory = Paths.get("").toAbsolutePath().toString();
+
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            System.err.println("Cannot reach the daemon on " + socketPath + ": " + e.getMessage());
+            return 1;
+        }
+
+        try (channel;
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+             DataInputStream response = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)))) {
+            DaemonProtocol.writeRequest(output, new DaemonProtocol.Request(workingDirectory, args, input));
+
+            byte[] buffer = new byte[8192];
+            while (true) {
+                byte stream = response.readByte();
+                if (stream == DaemonProtocol.EXIT) {
+                    System.out.flush();
+                    System.err.flush();
+                    return response.readInt();
+                }
+
+                int length = response.readInt();
+                if (length > buffer.length) {
+                    buffer = new byte[length];
+                }
+                response.readFully(buffer, 0, length);
+                (stream == DaemonProtocol.STDERR ? System.err : System.out).write(buffer, 0, length);
+            }
+        }
+    }
+
+    private static boolean readsStandardInput(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if ("batch".equals(args[i])) {
+                return i + 1 == args.length || "-".equals(args[i + 1]) || args[i + 1].startsWith("-");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,65 @@
+package com.fges.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Échanges entre le client et le démon sur le socket Unix.
+ * Requête : répertoire courant du client, arguments de la ligne de commande, entrée standard éventuelle.
+ * Réponse : suite de trames (sortie standard, sortie d'erreur) terminée par le code de retour.
+ */
+final class DaemonProtocol {
+    static final byte STDOUT = 1;
+    static final byte STDERR = 2;
+    static final byte EXIT = 3;
+    private static final int NO_INPUT = -1;
+
+    record Request(String workingDirectory, String[] args, byte[] input) {
+    }
+
+    private DaemonProtocol() {
+    }
+
+    static void writeRequest(DataOutputStream output, Request request) throws IOException {
+        output.writeUTF(request.workingDirectory());
+        output.writeInt(request.args().length);
+        for (String arg : request.args()) {
+            output.writeUTF(arg);
+        }
+        if (request.input() == null) {
+            output.writeInt(NO_INPUT);
+        } else {
+            output.writeInt(request.input().length);
+            output.write(request.input());
+        }
+        output.flush();
+    }
+
+    static Request readRequest(DataInputStream input) throws IOException {
+        String workingDirectory = input.readUTF();
+        String[] args = new String[input.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = input.readUTF();
+        }
+        int inputLength = input.readInt();
+        byte[] stdin = null;
+        if (inputLength != NO_INPUT) {
+            stdin = new byte[inputLength];
+            input.readFully(stdin);
+        }
+        return new Request(workingDirectory, args, stdin);
+    }
+
+    static void writeFrame(DataOutputStream output, byte stream, byte[] bytes, int offset, int length) throws IOException {
+        output.writeByte(stream);
+        output.writeInt(length);
+        output.write(bytes, offset, length);
+    }
+
+    static void writeExit(DataOutputStream output, int exitCode) throws IOException {
+        output.writeByte(EXIT);
+        output.writeInt(exitCode);
+        output.flush();
+    }
+}
@@ -0,0 +1,245 @@
+package com.fges.daemon;
+
+import com.fges.GroceryApplication;
+import com.fges.MyOptions;
+import com.fges.metrics.Metrics;
+import com.fges.output.OutputFormat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Démon qui exécute les commandes reçues sur un socket Unix.
+ * La JVM, les bus, les gestionnaires et les repositories (avec leur cache) restent chauds d'une commande à l'autre ;
+ * un contexte est gardé par source, format et format de sortie.
+ */
+public class GroceryDaemon implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path socketPath;
+    // Partagées par tous les contextes : "stats" et JMX montrent l'activité de tout le démon
+    private final Metrics metrics = Boolean.parseBoolean(System.getProperty("grocery.metrics", "true")) ? new Metrics() : null;
+    private final Map<ContextKey, GroceryApplication> applications = new ConcurrentHashMap<>();
+    // Un verrou par source, partagé par ses contextes (un par format de sortie)
+    private final Map<String, Object> sourceLocks = new ConcurrentHashMap<>();
+    private final ExecutorService workers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "grocery-daemon-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ThreadRoutedOutputStream routedOut;
+    private ThreadRoutedOutputStream routedErr;
+    private PrintStream console;
+    private volatile ServerSocketChannel server;
+
+    public GroceryDaemon(Path socketPath) {
+        this.socketPath = socketPath;
+    }
+
+    /**
+     * Écoute jusqu'à l'arrêt du processus ou l'appel à close()
+     */
+    public int serve() throws IOException {
+        if (isListening(socketPath)) {
+            System.err.println("A daemon is already listening on " + socketPath);
+            return 1;
+        }
+        // Socket laissé par un démon arrêté brutalement
+        Files.deleteIfExists(socketPath);
+
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        try (ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.bind(UnixDomainSocketAddress.of(socketPath));
+            server = channel;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    Files.deleteIfExists(socketPath);
+                } catch (IOException e) {
+                    // Le prochain démon supprimera le socket
+                }
+            }));
+
+            console = originalErr;
+            routedOut = new ThreadRoutedOutputStream(originalOut);
+            routedErr = new ThreadRoutedOutputStream(originalErr);
+            System.setOut(new PrintStream(routedOut, true));
+            System.setErr(new PrintStream(routedErr, true));
+            if (metrics != null) {
+                metrics.registerMBean();
+            }
+            console.println("Daemon listening on " + socketPath);
+
+            while (true) {
+                SocketChannel client = channel.accept();
+                workers.execute(() -> handle(client));
+            }
+        } catch (AsynchronousCloseException e) {
+            // Arrêt demandé par close()
+            return 0;
+        } finally {
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+            workers.shutdown();
+            Files.deleteIfExists(socketPath);
+            closeApplications();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        ServerSocketChannel channel = server;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void handle(SocketChannel client) {
+        try (SocketChannel channel = client;
+             DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE))) {
+            DaemonProtocol.Request request = DaemonProtocol.readRequest(input);
+
+            // Les sorties de ce thread partent vers le client sous forme de trames
+            routedOut.route(new FrameOutputStream(output, DaemonProtocol.STDOUT));
+            routedErr.route(new FrameOutputStream(output, DaemonProtocol.STDERR));
+            int exitCode;
+            try {
+                exitCode = execute(request);
+            } catch (Exception e) {
+                System.err.println("Error: " + e.getMessage());
+                exitCode = 1;
+            } finally {
+                System.out.flush();
+                System.err.flush();
+                routedOut.clear();
+                routedErr.clear();
+            }
+            DaemonProtocol.writeExit(output, exitCode);
+        } catch (IOException e) {
+            console.println("Client connection failed: " + e.getMessage());
+        }
+    }
+
+    private int execute(DaemonProtocol.Request request) throws Exception {
+        MyOptions options = new MyOptions();
+        if (!options.parse(request.args())) {
+            return 1;
+        }
+        if ("daemon".equals(options.getCommand())) {
+            System.err.println("Cannot start a daemon from a daemon");
+            return 1;
+        }
+
+        // Les chemins relatifs sont ceux du client
+        Path workingDirectory = Paths.get(request.workingDirectory());
+        ContextKey key = new ContextKey(
+                workingDirectory.resolve(options.getSourceFile()).normalize().toString(),
+                options.getFormat(),
+                options.getOutputFormat()
+        );
+        GroceryApplication application = applications.computeIfAbsent(key,
+                k -> new GroceryApplication(k.sourceFile(), k.format(), k.outputFormat(), metrics, true));
+        Object sourceLock = sourceLocks.computeIfAbsent(key.sourceFile(), k -> new Object());
+
+        InputStream in = request.input() == null ? InputStream.nullInputStream() : new ByteArrayInputStream(request.input());
+        // Les commandes d'une même source s'exécutent l'une après l'autre, comme des processus successifs,
+        // y compris d'un contexte à l'autre : une projection ne prend pas l'écriture d'un autre contexte pour la sienne
+        int exitCode;
+        synchronized (sourceLock) {
+            exitCode = application.execute(options, in, workingDirectory);
+        }
+        // Le modèle de lecture est (re)chargé après la réponse, pas pendant la requête qui le trouve périmé
+        try {
+            workers.execute(() -> warmUp(application, sourceLock));
+        } catch (RejectedExecutionException e) {
+            // Démon en cours d'arrêt
+        }
+        return exitCode;
+    }
+
+    private void warmUp(GroceryApplication application, Object sourceLock) {
+        synchronized (sourceLock) {
+            try {
+                application.warmUp();
+            } catch (IOException | RuntimeException e) {
+                console.println("Could not load read model: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Ferme les contextes : leurs écritures encore en attente de synchronisation sont forcées sur le disque
+     */
+    private void closeApplications() {
+        for (Map.Entry<ContextKey, GroceryApplication> entry : applications.entrySet()) {
+            synchronized (sourceLocks.computeIfAbsent(entry.getKey().sourceFile(), k -> new Object())) {
+                try {
+                    entry.getValue().close();
+                } catch (IOException e) {
+                    System.err.println("Could not close " + entry.getKey().sourceFile() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static boolean isListening(Path socketPath) {
+        if (!Files.exists(socketPath)) {
+            return false;
+        }
+        try (SocketChannel ignored = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private record ContextKey(String sourceFile, String format, OutputFormat outputFormat) {
+    }
+
+    /**
+     * Découpe ce qu'écrit le thread en trames du protocole
+     */
+    private static class FrameOutputStream extends OutputStream {
+        private final DataOutputStream output;
+        private final byte stream;
+
+        FrameOutputStream(DataOutputStream output, byte stream) {
+            this.output = output;
+            this.stream = stream;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            DaemonProtocol.writeFrame(output, stream, bytes, offset, length);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.fges.daemon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Flux installé comme System.out / System.err du démon : chaque thread de traitement écrit
+ * vers le client qu'il sert, les autres threads vers le flux d'origine
+ */
+final class ThreadRoutedOutputStream extends OutputStream {
+    private final OutputStream fallback;
+    private final ThreadLocal<OutputStream> target = new ThreadLocal<>();
+
+    ThreadRoutedOutputStream(OutputStream fallback) {
+        this.fallback = fallback;
+    }
+
+    void route(OutputStream out) {
+        target.set(out);
+    }
+
+    void clear() {
+        target.remove();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        current().write(b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        current().write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        current().flush();
+    }
+
+    private OutputStream current() {
+        OutputStream out = target.get();
+        return out != null ? out : fallback;
+    }
+}
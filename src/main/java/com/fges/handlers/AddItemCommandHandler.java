@@ -2,6 +2,7 @@ package com.fges.handlers;
 
 import com.fges.commands.AddItemCommand;
 import com.fges.core.CommandHandler;
+import com.fges.model.GroceryItem;
 import com.fges.repository.GroceryRepository;
 
 import java.io.IOException;
@@ -19,11 +20,11 @@ public class AddItemCommandHandler implements CommandHandler<AddItemCommand, Add
     @Override
     public int handle(AddItemCommand command) throws IOException {
         try {
-            repository.addItem(
+            repository.addItem(new GroceryItem(
                     command.getItemName(),
                     command.getQuantity(),
                     command.getCategory()
-            );
+            ));
             return 0;
         } catch (Exception e) {
             System.err.println("Error adding item: " + e.getMessage());
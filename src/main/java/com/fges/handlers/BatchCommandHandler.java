@@ -0,0 +1,51 @@
+package com.fges.handlers;
+
+import com.fges.commands.AddItemCommand;
+import com.fges.commands.BatchCommand;
+import com.fges.commands.RemoveItemCommand;
+import com.fges.core.Command;
+import com.fges.core.CommandHandler;
+import com.fges.model.GroceryItem;
+import com.fges.repository.GroceryOperation;
+import com.fges.repository.GroceryRepository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gestionnaire pour la commande de lot : toutes les opérations sont appliquées par un seul appel au repository
+ */
+public class BatchCommandHandler implements CommandHandler<BatchCommand, BatchCommand.Payload> {
+    private final GroceryRepository repository;
+
+    public BatchCommandHandler(GroceryRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public int handle(BatchCommand command) throws IOException {
+        try {
+            List<GroceryOperation> operations = new ArrayList<>(command.getCommands().size());
+            for (Command<?> subCommand : command.getCommands()) {
+                operations.add(toOperation(subCommand));
+            }
+
+            repository.applyAll(operations);
+            return 0;
+        } catch (Exception e) {
+            System.err.println("Error applying batch: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static GroceryOperation toOperation(Command<?> command) {
+        if (command instanceof AddItemCommand add) {
+            return GroceryOperation.add(new GroceryItem(add.getItemName(), add.getQuantity(), add.getCategory()));
+        }
+        if (command instanceof RemoveItemCommand remove) {
+            return GroceryOperation.remove(remove.getItemName());
+        }
+        throw new IllegalArgumentException("Unsupported command in batch: " + command.getClass().getSimpleName());
+    }
+}
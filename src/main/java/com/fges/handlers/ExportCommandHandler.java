@@ -0,0 +1,93 @@
+package com.fges.handlers;
+
+import com.fges.commands.ExportCommand;
+import com.fges.core.CommandHandler;
+import com.fges.metrics.Metrics;
+import com.fges.model.AddPolicy;
+import com.fges.repository.DurabilityPolicy;
+import com.fges.repository.GroceryRepository;
+import com.fges.repository.GroceryRepositoryFactory;
+import com.fges.repository.GroceryTransfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Gestionnaire pour la commande d'export : la liste est lue en flux (sans passer par le cache)
+ * et copiée en masse dans un nouveau fichier, synchronisé une seule fois à la fin.
+ * Un fichier cible existant est refusé, et une copie qui échoue est supprimée.
+ */
+public class ExportCommandHandler implements CommandHandler<ExportCommand, ExportCommand.Payload> {
+    private final String fileName;
+    private final String format;
+    private final AddPolicy addPolicy;
+    private final Metrics metrics;
+
+    /**
+     * @param fileName fichier de la liste à copier
+     */
+    public ExportCommandHandler(String fileName, String format, Metrics metrics) {
+        this(fileName, format, AddPolicy.MERGE, metrics);
+    }
+
+    /**
+     * @param addPolicy politique d'ajout des deux listes
+     */
+    public ExportCommandHandler(String fileName, String format, AddPolicy addPolicy, Metrics metrics) {
+        this.fileName = fileName;
+        this.format = format;
+        this.addPolicy = addPolicy;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public int handle(ExportCommand command) throws IOException {
+        GroceryRepository source = GroceryRepositoryFactory.createUncachedRepository(fileName, format,
+                DurabilityPolicy.NEVER, addPolicy, metrics);
+        GroceryRepository target = GroceryRepositoryFactory.createUncachedRepository(command.getFileName(),
+                command.getFormat(), DurabilityPolicy.NEVER, addPolicy, metrics);
+        try {
+            if (GroceryTransfer.sharesStorage(source, target)) {
+                System.err.println("Cannot export a list into itself: " + command.getFileName());
+                return 1;
+            }
+
+            if (!source.fileExists()) {
+                System.err.println("No items to export.");
+                return 1;
+            }
+
+            // Un export ne se fusionne jamais à une liste existante : l'exporter deux fois doublerait les quantités
+            if (target.fileExists()) {
+                System.err.println("Export target already exists: " + command.getFileName());
+                return 1;
+            }
+
+            GroceryTransfer.Result result;
+            try {
+                result = new GroceryTransfer().transfer(source, target);
+            } catch (IOException | RuntimeException e) {
+                // Pas de copie partielle : la cible n'existait pas avant l'export
+                close(target);
+                GroceryTransfer.discard(target);
+                throw e;
+            }
+            System.out.printf(Locale.ROOT, "Exported %d items to %s in %.2f s (%.0f items/s)%n",
+                    result.items(), command.getFileName(), result.elapsedNanos() / 1e9, result.itemsPerSecond());
+            return 0;
+        } catch (Exception e) {
+            System.err.println("Error exporting items: " + e.getMessage());
+            return 1;
+        } finally {
+            close(source);
+            close(target);
+        }
+    }
+
+    private static void close(GroceryRepository repository) throws IOException {
+        if (repository instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
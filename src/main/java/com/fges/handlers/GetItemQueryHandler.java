@@ -0,0 +1,52 @@
+package com.fges.handlers;
+
+import com.fges.core.QueryHandler;
+import com.fges.model.GroceryItem;
+import com.fges.output.OutputFormat;
+import com.fges.output.OutputSink;
+import com.fges.queries.GetItemQuery;
+import com.fges.repository.GroceryReader;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Gestionnaire pour la requête de recherche d'un article par son nom
+ */
+public class GetItemQueryHandler implements QueryHandler<GetItemQuery, GetItemQuery.Parameters, Integer> {
+    private final GroceryReader repository;
+    private final OutputFormat outputFormat;
+
+    public GetItemQueryHandler(GroceryReader repository) {
+        this(repository, OutputFormat.TEXT);
+    }
+
+    public GetItemQueryHandler(GroceryReader repository, OutputFormat outputFormat) {
+        this.repository = repository;
+        this.outputFormat = outputFormat;
+    }
+
+    @Override
+    public Integer handle(GetItemQuery query) throws IOException {
+        OutputSink sink = outputFormat.open(System.out);
+        try {
+            List<GroceryItem> items = repository.findItems(query.getItemName());
+
+            if (items.isEmpty()) {
+                sink.message("Item not found: " + query.getItemName());
+                return 1;
+            }
+
+            for (GroceryItem item : items) {
+                sink.item(item);
+            }
+
+            return 0;
+        } catch (Exception e) {
+            System.err.println("Error getting item: " + e.getMessage());
+            return 1;
+        } finally {
+            sink.flush();
+        }
+    }
+}
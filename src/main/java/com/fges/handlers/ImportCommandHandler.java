@@ -0,0 +1,82 @@
+package com.fges.handlers;
+
+import com.fges.commands.ImportCommand;
+import com.fges.core.CommandHandler;
+import com.fges.metrics.Metrics;
+import com.fges.model.AddPolicy;
+import com.fges.repository.DurabilityPolicy;
+import com.fges.repository.GroceryRepository;
+import com.fges.repository.GroceryRepositoryFactory;
+import com.fges.repository.GroceryTransfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Gestionnaire pour la commande d'import : les articles sont copiés en masse, sans passer par une commande
+ * par article. Les deux fichiers sont ouverts sans cache ; la liste est écrite par une instance dédiée,
+ * synchronisée une seule fois à la fin.
+ * Les articles sont ajoutés à ceux de la liste, comme par "add" : avec la politique MERGE (par défaut),
+ * un article déjà présent dans la catégorie voit sa quantité augmenter, et importer deux fois le même fichier
+ * double donc les quantités. Un import qui échoue peut laisser une partie des articles ajoutés.
+ */
+public class ImportCommandHandler implements CommandHandler<ImportCommand, ImportCommand.Payload> {
+    private final String fileName;
+    private final String format;
+    private final AddPolicy addPolicy;
+    private final Metrics metrics;
+
+    /**
+     * @param fileName fichier de la liste qui reçoit les articles
+     */
+    public ImportCommandHandler(String fileName, String format, Metrics metrics) {
+        this(fileName, format, AddPolicy.MERGE, metrics);
+    }
+
+    /**
+     * @param addPolicy politique d'ajout des deux listes
+     */
+    public ImportCommandHandler(String fileName, String format, AddPolicy addPolicy, Metrics metrics) {
+        this.fileName = fileName;
+        this.format = format;
+        this.addPolicy = addPolicy;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public int handle(ImportCommand command) throws IOException {
+        GroceryRepository source = GroceryRepositoryFactory.createUncachedRepository(command.getFileName(),
+                command.getFormat(), DurabilityPolicy.NEVER, addPolicy, metrics);
+        GroceryRepository target = GroceryRepositoryFactory.createUncachedRepository(fileName, format,
+                DurabilityPolicy.NEVER, addPolicy, metrics);
+        try {
+            if (GroceryTransfer.sharesStorage(source, target)) {
+                System.err.println("Cannot import a list into itself: " + command.getFileName());
+                return 1;
+            }
+
+            if (!source.fileExists()) {
+                System.err.println("File not found: " + command.getFileName());
+                return 1;
+            }
+
+            GroceryTransfer.Result result = new GroceryTransfer().transfer(source, target);
+            System.out.printf(Locale.ROOT, "Imported %d items from %s in %.2f s (%.0f items/s)%n",
+                    result.items(), command.getFileName(), result.elapsedNanos() / 1e9, result.itemsPerSecond());
+            return 0;
+        } catch (Exception e) {
+            System.err.println("Error importing items: " + e.getMessage());
+            return 1;
+        } finally {
+            close(source);
+            close(target);
+        }
+    }
+
+    private static void close(GroceryRepository repository) throws IOException {
+        if (repository instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
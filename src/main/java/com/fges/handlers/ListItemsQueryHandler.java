@@ -1,50 +1,132 @@
 package com.fges.handlers;
 
 import com.fges.core.QueryHandler;
+import com.fges.model.GroceryItem;
+import com.fges.output.OutputFormat;
+import com.fges.output.OutputSink;
 import com.fges.queries.ListItemsQuery;
-import com.fges.repository.GroceryRepository;
+import com.fges.repository.GroceryReader;
+import com.fges.repository.ItemCriteria;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.PriorityQueue;
 
 /**
  * Gestionnaire pour la requête de liste des articles
  */
 public class ListItemsQueryHandler implements QueryHandler<ListItemsQuery, ListItemsQuery.Parameters, Integer> {
-    private final GroceryRepository repository;
+    private static final Comparator<GroceryItem> BY_CATEGORY = Comparator.comparing(GroceryItem::category);
 
-    public ListItemsQueryHandler(GroceryRepository repository) {
+    private final GroceryReader repository;
+    private final OutputFormat outputFormat;
+
+    public ListItemsQueryHandler(GroceryReader repository) {
+        this(repository, OutputFormat.TEXT);
+    }
+
+    public ListItemsQueryHandler(GroceryReader repository, OutputFormat outputFormat) {
         this.repository = repository;
+        this.outputFormat = outputFormat;
     }
 
     @Override
     public Integer handle(ListItemsQuery query) throws IOException {
+        // La sortie est vidée une seule fois, à la fin de la requête
+        OutputSink sink = outputFormat.open(System.out);
         try {
             if (!repository.fileExists()) {
-                System.out.println("No items found.");
+                sink.message("No items found.");
                 return 0;
             }
 
-            Map<String, List<String>> items = repository.getAllItems();
+            ListItemsQuery.Parameters parameters = query.getParameters();
+            ItemCriteria criteria = new ItemCriteria(parameters.getCategory(), parameters.getPrefix());
+            int printed = 0;
 
-            if (items.isEmpty()) {
-                System.out.println("No items found.");
-                return 0;
+            if (parameters.getLimit() == null || parameters.getLimit() > 0) {
+                if (parameters.getSort() == ListItemsQuery.Sort.NONE) {
+                    printed = printInFileOrder(criteria, parameters, sink);
+                } else {
+                    for (GroceryItem item : sortedPage(criteria, parameters)) {
+                        sink.item(item);
+                        printed++;
+                    }
+                }
             }
 
-            // Affichage groupé par catégorie
-            for (var entry : items.entrySet()) {
-                System.out.println("# " + entry.getKey() + ":");
-                for (String item : entry.getValue()) {
-                    System.out.println("  " + item);
-                }
+            if (printed == 0) {
+                sink.message("No items found.");
             }
 
             return 0;
         } catch (Exception e) {
             System.err.println("Error listing items: " + e.getMessage());
             return 1;
+        } finally {
+            sink.flush();
+        }
+    }
+
+    /**
+     * Parcours en flux : le parcours s'arrête dès que la page est complète
+     */
+    private int printInFileOrder(ItemCriteria criteria, ListItemsQuery.Parameters parameters, OutputSink sink)
+            throws IOException {
+        int[] skipped = {0};
+        int[] printed = {0};
+        repository.forEachItem(criteria, item -> {
+            if (skipped[0] < parameters.getOffset()) {
+                skipped[0]++;
+                return true;
+            }
+            sink.item(item);
+            printed[0]++;
+            return parameters.getLimit() == null || printed[0] < parameters.getLimit();
+        });
+        return printed[0];
+    }
+
+    /**
+     * Avec une limite, seuls les offset + limit premiers articles sont gardés (tas borné)
+     */
+    private List<GroceryItem> sortedPage(ItemCriteria criteria, ListItemsQuery.Parameters parameters) throws IOException {
+        Comparator<GroceryItem> order = comparator(parameters.getSort());
+        Integer limit = parameters.getLimit();
+        List<GroceryItem> sorted;
+
+        if (limit == null) {
+            List<GroceryItem> items = new ArrayList<>();
+            repository.forEachItem(criteria, items::add);
+            items.sort(order);
+            sorted = items;
+        } else {
+            int bound = (int) Math.min((long) parameters.getOffset() + limit, Integer.MAX_VALUE);
+            // Le plus "grand" article gardé est en tête du tas et cède sa place au suivant plus petit
+            PriorityQueue<GroceryItem> heap = new PriorityQueue<>(order.reversed());
+            repository.forEachItem(criteria, item -> {
+                if (heap.size() < bound) {
+                    heap.add(item);
+                } else if (order.compare(item, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(item);
+                }
+                return true;
+            });
+            sorted = new ArrayList<>(heap);
+            sorted.sort(order);
+        }
+
+        int from = Math.min(parameters.getOffset(), sorted.size());
+        return sorted.subList(from, sorted.size());
+    }
+
+    private static Comparator<GroceryItem> comparator(ListItemsQuery.Sort sort) {
+        if (sort == ListItemsQuery.Sort.QUANTITY) {
+            return BY_CATEGORY.thenComparing(Comparator.comparingInt(GroceryItem::quantity).reversed());
         }
+        return BY_CATEGORY.thenComparing(GroceryItem::name, String.CASE_INSENSITIVE_ORDER);
     }
-}
\ No newline at end of file
+}
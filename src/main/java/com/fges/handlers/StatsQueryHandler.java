@@ -0,0 +1,40 @@
+package com.fges.handlers;
+
+import com.fges.core.QueryHandler;
+import com.fges.metrics.Metrics;
+import com.fges.queries.StatsQuery;
+
+/**
+ * Gestionnaire pour la requête des métriques : compteurs, jauges puis durées, triés par nom
+ */
+public class StatsQueryHandler implements QueryHandler<StatsQuery, StatsQuery.Parameters, Integer> {
+    private final Metrics metrics;
+
+    /**
+     * @param metrics null si les métriques sont désactivées
+     */
+    public StatsQueryHandler(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Integer handle(StatsQuery query) {
+        if (metrics == null) {
+            System.out.println("Metrics are disabled (use the daemon, or run with -Dgrocery.metrics=true)");
+            return 0;
+        }
+
+        StringBuilder output = new StringBuilder();
+        metrics.getCounters().forEach((name, value) ->
+                output.append("counter ").append(name).append(' ').append(value).append('\n'));
+        metrics.getGauges().forEach((name, value) ->
+                output.append("gauge ").append(name).append(' ').append(value).append('\n'));
+        metrics.getTimers().forEach((name, stats) ->
+                output.append("timer ").append(name).append(' ').append(stats).append('\n'));
+        if (output.length() == 0) {
+            output.append("No metrics recorded yet.\n");
+        }
+        System.out.print(output);
+        return 0;
+    }
+}
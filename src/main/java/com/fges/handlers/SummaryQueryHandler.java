@@ -0,0 +1,46 @@
+package com.fges.handlers;
+
+import com.fges.core.QueryHandler;
+import com.fges.output.OutputFormat;
+import com.fges.output.OutputSink;
+import com.fges.queries.SummaryQuery;
+import com.fges.repository.GroceryReader;
+
+import java.io.IOException;
+
+/**
+ * Gestionnaire pour la requête de résumé ; le calcul revient au GroceryReader (compteurs de la projection
+ * ou parcours unique du stockage)
+ */
+public class SummaryQueryHandler implements QueryHandler<SummaryQuery, SummaryQuery.Parameters, Integer> {
+    private final GroceryReader repository;
+    private final OutputFormat outputFormat;
+
+    public SummaryQueryHandler(GroceryReader repository) {
+        this(repository, OutputFormat.TEXT);
+    }
+
+    public SummaryQueryHandler(GroceryReader repository, OutputFormat outputFormat) {
+        this.repository = repository;
+        this.outputFormat = outputFormat;
+    }
+
+    @Override
+    public Integer handle(SummaryQuery query) throws IOException {
+        OutputSink sink = outputFormat.open(System.out);
+        try {
+            if (!repository.fileExists()) {
+                sink.message("No items found.");
+                return 0;
+            }
+
+            sink.summary(repository.summarize(query.getTopN()));
+            return 0;
+        } catch (Exception e) {
+            System.err.println("Error summarizing items: " + e.getMessage());
+            return 1;
+        } finally {
+            sink.flush();
+        }
+    }
+}
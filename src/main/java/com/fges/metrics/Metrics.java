@@ -0,0 +1,101 @@
+package com.fges.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Registre des compteurs, jauges et durées d'un processus.
+ * Les bus et repositories ne mesurent rien tant qu'aucun registre ne leur est donné :
+ * sans métriques, le seul coût est la lecture d'un champ null.
+ */
+public class Metrics implements MetricsMXBean {
+    public static final String OBJECT_NAME = "com.fges:type=Metrics";
+
+    private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    // Valeurs courantes (tailles...) : la dernière mesure remplace la précédente
+    private final Map<String, AtomicLong> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * Activées par la propriété système grocery.metrics
+     *
+     * @return null si les métriques sont désactivées
+     */
+    public static Metrics fromSystemProperties() {
+        return Boolean.getBoolean("grocery.metrics") ? new Metrics() : null;
+    }
+
+    public LatencyHistogram timer(String name) {
+        return timers.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    public void recordTime(String name, long startNanos) {
+        timer(name).record(System.nanoTime() - startNanos);
+    }
+
+    public void increment(String name) {
+        counter(name).increment();
+    }
+
+    public void add(String name, long value) {
+        counter(name).add(value);
+    }
+
+    public void setGauge(String name, long value) {
+        gauges.computeIfAbsent(name, key -> new AtomicLong()).set(value);
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new TreeMap<>();
+        gauges.forEach((name, gauge) -> values.put(name, gauge.get()));
+        return values;
+    }
+
+    @Override
+    public Map<String, TimerStats> getTimers() {
+        Map<String, TimerStats> values = new TreeMap<>();
+        timers.forEach((name, histogram) -> values.put(name, TimerStats.of(histogram)));
+        return values;
+    }
+
+    /**
+     * Remet à zéro compteurs et durées ; les jauges gardent leur dernière valeur
+     */
+    @Override
+    public void reset() {
+        timers.values().forEach(LatencyHistogram::reset);
+        counters.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Expose le registre par JMX (com.fges:type=Metrics) ; un seul registre par processus
+     */
+    public void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Un autre registre est déjà exposé dans ce processus
+        } catch (JMException e) {
+            System.err.println("Could not register metrics MBean: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.fges.metrics;
+
+import java.util.Map;
+
+/**
+ * Vue JMX des métriques (jconsole, VisualVM...)
+ */
+public interface MetricsMXBean {
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getGauges();
+
+    Map<String, TimerStats> getTimers();
+
+    void reset();
+}
@@ -0,0 +1,68 @@
+package com.fges.metrics;
+
+import java.beans.ConstructorProperties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Résumé d'un histogramme de durées, en microsecondes
+ */
+public class TimerStats {
+    private final long count;
+    private final long meanMicros;
+    private final long p50Micros;
+    private final long p99Micros;
+    private final long maxMicros;
+
+    @ConstructorProperties({"count", "meanMicros", "p50Micros", "p99Micros", "maxMicros"})
+    public TimerStats(long count, long meanMicros, long p50Micros, long p99Micros, long maxMicros) {
+        this.count = count;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    static TimerStats of(LatencyHistogram histogram) {
+        long count = histogram.getCount();
+        return new TimerStats(
+                count,
+                count == 0 ? 0 : micros(histogram.getTotalNanos() / count),
+                micros(histogram.getPercentileNanos(50)),
+                micros(histogram.getPercentileNanos(99)),
+                micros(histogram.getMaxNanos())
+        );
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMeanMicros() {
+        return meanMicros;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count
+                + " meanUs=" + meanMicros
+                + " p50Us=" + p50Micros
+                + " p99Us=" + p99Micros
+                + " maxUs=" + maxMicros;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,29 @@
+package com.fges.model;
+
+/**
+ * Effet de l'ajout d'un article déjà présent dans la même catégorie
+ */
+public enum AddPolicy {
+    /**
+     * La quantité est ajoutée à celle de l'article existant : la liste a une entrée par article et par catégorie
+     */
+    MERGE,
+    /**
+     * Ancien comportement : une nouvelle entrée à chaque ajout
+     */
+    APPEND;
+
+    /**
+     * Politique du processus, choisie par la propriété système grocery.addPolicy (merge par défaut).
+     * Lue une seule fois au démarrage (Main, contexte de l'application, factory) puis transmise explicitement
+     * aux repositories et aux listes.
+     */
+    public static AddPolicy configured() {
+        String value = System.getProperty("grocery.addPolicy", "merge");
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown add policy: " + value + " (expected merge or append)");
+        }
+    }
+}
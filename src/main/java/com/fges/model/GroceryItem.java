@@ -0,0 +1,53 @@
+package com.fges.model;
+
+import java.util.Objects;
+
+/**
+ * Article de la liste de courses
+ */
+public record GroceryItem(String name, int quantity, String category) {
+
+    public GroceryItem {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(category, "category");
+        name = name.trim();
+    }
+
+    /**
+     * Compare le nom de l'article sans tenir compte de la casse ni des espaces autour de otherName.
+     * La comparaison se fait sur place, entre les bornes sans espaces : aucune chaîne n'est allouée.
+     */
+    public boolean hasName(String otherName) {
+        // Mêmes espaces que String.trim(), déjà retirés de name par le constructeur
+        int start = 0;
+        int end = otherName.length();
+        while (start < end && otherName.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && otherName.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end - start == name.length() && name.regionMatches(true, 0, otherName, start, end - start);
+    }
+
+    public GroceryItem withQuantity(int newQuantity) {
+        return new GroceryItem(name, newQuantity, category);
+    }
+
+    /**
+     * Relit l'ancien format texte "article, quantité"
+     */
+    public static GroceryItem parseLegacy(String value, String category) {
+        int separator = value.lastIndexOf(',');
+        if (separator < 0) {
+            return new GroceryItem(value, 0, category);
+        }
+
+        String name = value.substring(0, separator);
+        try {
+            return new GroceryItem(name, Integer.parseInt(value.substring(separator + 1).trim()), category);
+        } catch (NumberFormatException e) {
+            return new GroceryItem(value, 0, category);
+        }
+    }
+}
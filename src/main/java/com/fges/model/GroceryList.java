@@ -0,0 +1,201 @@
+package com.fges.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Liste de courses en mémoire, indexée par nom d'article normalisé.
+ * Ajout, suppression et recherche par nom ne dépendent pas de la taille de la liste.
+ * Par défaut (MERGE) un article déjà présent dans la catégorie voit sa quantité augmenter (voir AddPolicy).
+ */
+public class GroceryList implements Iterable<GroceryItem> {
+    // catégorie -> (nom normalisé -> articles de ce nom dans la catégorie)
+    private final Map<String, Map<String, List<GroceryItem>>> categories = new LinkedHashMap<>();
+    // nom normalisé -> catégories qui contiennent l'article
+    private final Map<String, Set<String>> nameIndex = new HashMap<>();
+    private final AddPolicy addPolicy;
+    private int size;
+
+    public GroceryList() {
+        this(AddPolicy.MERGE);
+    }
+
+    public GroceryList(AddPolicy addPolicy) {
+        this.addPolicy = addPolicy;
+    }
+
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param addPolicy politique des ajouts suivants ; APPEND garde aussi chaque entrée de categoryMap telle quelle
+     */
+    public static GroceryList fromCategoryMap(Map<String, List<GroceryItem>> categoryMap, AddPolicy addPolicy) {
+        GroceryList list = new GroceryList(addPolicy);
+        for (List<GroceryItem> items : categoryMap.values()) {
+            for (GroceryItem item : items) {
+                list.add(item);
+            }
+        }
+        return list;
+    }
+
+    public void add(GroceryItem item) {
+        String key = normalize(item.name());
+        List<GroceryItem> sameName = categories.computeIfAbsent(item.category(), k -> new LinkedHashMap<>())
+                .computeIfAbsent(key, k -> new ArrayList<>(1));
+
+        if (addPolicy == AddPolicy.MERGE && !sameName.isEmpty()) {
+            // L'article garde le nom sous lequel il a été ajouté la première fois
+            GroceryItem existing = sameName.get(0);
+            sameName.set(0, existing.withQuantity(existing.quantity() + item.quantity()));
+            return;
+        }
+
+        sameName.add(item);
+        nameIndex.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(item.category());
+        size++;
+    }
+
+    /**
+     * Retire et renvoie les articles de ce nom dans une seule catégorie
+     */
+    public List<GroceryItem> take(String name, String category) {
+        String key = normalize(name);
+        Map<String, List<GroceryItem>> items = categories.get(category);
+        List<GroceryItem> taken = items == null ? null : items.remove(key);
+        if (taken == null) {
+            return List.of();
+        }
+
+        if (items.isEmpty()) {
+            categories.remove(category);
+        }
+        Set<String> locations = nameIndex.get(key);
+        locations.remove(category);
+        if (locations.isEmpty()) {
+            nameIndex.remove(key);
+        }
+        size -= taken.size();
+        return taken;
+    }
+
+    /**
+     * Supprime toutes les occurrences de l'article, dans toutes les catégories
+     *
+     * @return le nombre d'articles supprimés
+     */
+    public int remove(String name) {
+        String key = normalize(name);
+        Set<String> locations = nameIndex.remove(key);
+        if (locations == null) {
+            return 0;
+        }
+
+        int removed = 0;
+        for (String category : locations) {
+            Map<String, List<GroceryItem>> items = categories.get(category);
+            removed += items.remove(key).size();
+            // Une catégorie vide n'a plus de raison d'être affichée
+            if (items.isEmpty()) {
+                categories.remove(category);
+            }
+        }
+        size -= removed;
+        return removed;
+    }
+
+    public boolean contains(String name) {
+        return nameIndex.containsKey(normalize(name));
+    }
+
+    public List<GroceryItem> find(String name) {
+        String key = normalize(name);
+        Set<String> locations = nameIndex.get(key);
+        if (locations == null) {
+            return List.of();
+        }
+
+        List<GroceryItem> found = new ArrayList<>();
+        for (String category : locations) {
+            found.addAll(categories.get(category).get(key));
+        }
+        return found;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        categories.clear();
+        nameIndex.clear();
+        size = 0;
+    }
+
+    /**
+     * Parcourt les articles regroupés par catégorie, sans copie
+     */
+    @Override
+    public Iterator<GroceryItem> iterator() {
+        return categories.values().stream()
+                .flatMap(byName -> byName.values().stream())
+                .flatMap(List::stream)
+                .iterator();
+    }
+
+    public Set<String> categoryNames() {
+        return Collections.unmodifiableSet(categories.keySet());
+    }
+
+    public List<GroceryItem> itemsOf(String category) {
+        Map<String, List<GroceryItem>> byName = categories.get(category);
+        if (byName == null) {
+            return List.of();
+        }
+
+        List<GroceryItem> items = new ArrayList<>();
+        for (List<GroceryItem> sameName : byName.values()) {
+            items.addAll(sameName);
+        }
+        return items;
+    }
+
+    /**
+     * Vue "catégorie -> articles" dans l'ordre d'insertion des catégories
+     */
+    public Map<String, List<GroceryItem>> toCategoryMap() {
+        Map<String, List<GroceryItem>> categoryMap = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, List<GroceryItem>>> entry : categories.entrySet()) {
+            List<GroceryItem> items = new ArrayList<>();
+            for (List<GroceryItem> sameName : entry.getValue().values()) {
+                items.addAll(sameName);
+            }
+            categoryMap.put(entry.getKey(), items);
+        }
+        return categoryMap;
+    }
+
+    public List<GroceryItem> toList() {
+        List<GroceryItem> items = new ArrayList<>(size);
+        for (Map<String, List<GroceryItem>> byName : categories.values()) {
+            for (List<GroceryItem> sameName : byName.values()) {
+                items.addAll(sameName);
+            }
+        }
+        return Collections.unmodifiableList(items);
+    }
+}
@@ -0,0 +1,98 @@
+package com.fges.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.UnaryOperator;
+
+/**
+ * Résumé de la liste : articles distincts (par nom, toutes catégories confondues), quantité totale,
+ * nombre d'articles et quantité par catégorie, et les articles les plus nombreux
+ *
+ * @param categoryCounts nombre d'entrées par catégorie, dans l'ordre d'apparition des catégories
+ * @param categoryTotals somme des quantités par catégorie, dans le même ordre
+ * @param topItems articles de plus grande quantité totale, du plus grand au plus petit
+ */
+public record GrocerySummary(int distinctItems, long totalQuantity, Map<String, Integer> categoryCounts,
+                             Map<String, Long> categoryTotals, List<ItemTotal> topItems) {
+
+    // À quantité égale, les articles sont classés par nom
+    private static final Comparator<ItemTotal> BY_QUANTITY = Comparator.comparingLong(ItemTotal::quantity)
+            .reversed()
+            .thenComparing(ItemTotal::name);
+
+    public GrocerySummary {
+        categoryCounts = Collections.unmodifiableMap(new LinkedHashMap<>(categoryCounts));
+        categoryTotals = Collections.unmodifiableMap(new LinkedHashMap<>(categoryTotals));
+        topItems = List.copyOf(topItems);
+    }
+
+    /**
+     * Quantité totale d'un article, toutes catégories confondues
+     */
+    public record ItemTotal(String name, long quantity) {
+    }
+
+    /**
+     * Les topN plus grandes quantités, sélectionnées par un tas borné sans trier toutes les entrées
+     *
+     * @param quantities quantité par nom normalisé
+     * @param displayName nom affiché d'un article à partir de son nom normalisé (appelé pour les seuls retenus)
+     */
+    public static List<ItemTotal> topItems(Map<String, Long> quantities, int topN, UnaryOperator<String> displayName) {
+        if (topN <= 0) {
+            return List.of();
+        }
+
+        // Tas inversé : sa tête est le plus petit des articles retenus
+        PriorityQueue<ItemTotal> top = new PriorityQueue<>(Math.min(topN, quantities.size()) + 1, BY_QUANTITY.reversed());
+        for (Map.Entry<String, Long> entry : quantities.entrySet()) {
+            ItemTotal candidate = new ItemTotal(entry.getKey(), entry.getValue());
+            if (top.size() < topN) {
+                top.add(candidate);
+            } else if (BY_QUANTITY.compare(candidate, top.peek()) < 0) {
+                top.poll();
+                top.add(candidate);
+            }
+        }
+
+        List<ItemTotal> result = new ArrayList<>(top.size());
+        for (ItemTotal item : top) {
+            result.add(new ItemTotal(displayName.apply(item.name()), item.quantity()));
+        }
+        result.sort(BY_QUANTITY);
+        return result;
+    }
+
+    /**
+     * Calcul en un seul parcours des articles, pour les sources qui ne tiennent pas de compteurs
+     */
+    public static class Builder {
+        private final Map<String, Integer> categoryCounts = new LinkedHashMap<>();
+        private final Map<String, Long> categoryTotals = new LinkedHashMap<>();
+        private final Map<String, Long> itemQuantities = new HashMap<>();
+        // nom normalisé -> nom sous lequel l'article a été vu la première fois
+        private final Map<String, String> displayNames = new HashMap<>();
+        private long totalQuantity;
+
+        public Builder add(GroceryItem item) {
+            String key = GroceryList.normalize(item.name());
+            categoryCounts.merge(item.category(), 1, Integer::sum);
+            categoryTotals.merge(item.category(), (long) item.quantity(), Long::sum);
+            itemQuantities.merge(key, (long) item.quantity(), Long::sum);
+            displayNames.putIfAbsent(key, item.name());
+            totalQuantity += item.quantity();
+            return this;
+        }
+
+        public GrocerySummary build(int topN) {
+            return new GrocerySummary(itemQuantities.size(), totalQuantity, categoryCounts, categoryTotals,
+                    topItems(itemQuantities, topN, displayNames::get));
+        }
+    }
+}
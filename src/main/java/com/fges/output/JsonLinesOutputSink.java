@@ -0,0 +1,86 @@
+package com.fges.output;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fges.model.GroceryItem;
+import com.fges.model.GrocerySummary;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Sortie JSON lines : {"name":..,"quantity":..,"category":..} par article, {"message":..} pour les messages,
+ * un seul objet {"distinctItems":..,"totalQuantity":..,"categories":[..],"topItems":[..]} pour un résumé
+ */
+public class JsonLinesOutputSink implements OutputSink {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JsonGenerator generator;
+
+    public JsonLinesOutputSink(OutputStream out) {
+        try {
+            // Le flux de sortie (System.out) reste ouvert après la requête
+            this.generator = JSON_FACTORY.createGenerator(new BufferedOutputStream(out, BUFFER_SIZE), JsonEncoding.UTF8)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    // Pas de séparateur automatique entre les objets : chacun est suivi d'un retour à la ligne
+                    .setPrettyPrinter(new MinimalPrettyPrinter(""));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void item(GroceryItem item) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("name", item.name());
+        generator.writeNumberField("quantity", item.quantity());
+        generator.writeStringField("category", item.category());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void message(String text) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("message", text);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void summary(GrocerySummary summary) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("distinctItems", summary.distinctItems());
+        generator.writeNumberField("totalQuantity", summary.totalQuantity());
+        generator.writeArrayFieldStart("categories");
+        for (Map.Entry<String, Long> category : summary.categoryTotals().entrySet()) {
+            generator.writeStartObject();
+            generator.writeStringField("category", category.getKey());
+            generator.writeNumberField("items", summary.categoryCounts().get(category.getKey()));
+            generator.writeNumberField("quantity", category.getValue());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("topItems");
+        for (GrocerySummary.ItemTotal item : summary.topItems()) {
+            generator.writeStartObject();
+            generator.writeStringField("name", item.name());
+            generator.writeNumberField("quantity", item.quantity());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+}
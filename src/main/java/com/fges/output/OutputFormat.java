@@ -0,0 +1,17 @@
+package com.fges.output;
+
+import java.io.OutputStream;
+
+/**
+ * Formats de sortie disponibles pour les requêtes
+ */
+public enum OutputFormat {
+    // Texte lisible, groupé par catégorie
+    TEXT,
+    // Un objet JSON par ligne, pour les scripts
+    JSONL;
+
+    public OutputSink open(OutputStream out) {
+        return this == JSONL ? new JsonLinesOutputSink(out) : new TextOutputSink(out);
+    }
+}
@@ -0,0 +1,22 @@
+package com.fges.output;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.GrocerySummary;
+
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Destination des résultats des requêtes.
+ * Les implémentations bufferisent : flush() doit être appelé une fois la requête terminée.
+ */
+public interface OutputSink extends Flushable {
+    // Article d'un résultat ; les articles arrivent regroupés par catégorie
+    void item(GroceryItem item) throws IOException;
+
+    // Message destiné à l'utilisateur (aucun résultat, informations...)
+    void message(String text) throws IOException;
+
+    // Résumé de la liste (requête summary)
+    void summary(GrocerySummary summary) throws IOException;
+}
@@ -0,0 +1,69 @@
+package com.fges.output;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.GrocerySummary;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Sortie texte : un en-tête "# categorie:" à chaque changement de catégorie puis "  article, quantité".
+ * Les lignes sont accumulées dans un tampon de 64 Kio au lieu d'être vidées une par une.
+ */
+public class TextOutputSink implements OutputSink {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer writer;
+    private String currentCategory;
+
+    public TextOutputSink(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out), BUFFER_SIZE);
+    }
+
+    @Override
+    public void item(GroceryItem item) throws IOException {
+        if (!item.category().equals(currentCategory)) {
+            currentCategory = item.category();
+            writer.write("# ");
+            writer.write(item.category());
+            writer.write(":\n");
+        }
+        writer.write("  ");
+        writer.write(item.name());
+        writer.write(", ");
+        writer.write(Integer.toString(item.quantity()));
+        writer.write('\n');
+    }
+
+    @Override
+    public void message(String text) throws IOException {
+        currentCategory = null;
+        writer.write(text);
+        writer.write('\n');
+    }
+
+    @Override
+    public void summary(GrocerySummary summary) throws IOException {
+        currentCategory = null;
+        writer.write("Distinct items: " + summary.distinctItems() + "\n");
+        writer.write("Total quantity: " + summary.totalQuantity() + "\n");
+        writer.write("Categories:\n");
+        for (Map.Entry<String, Long> category : summary.categoryTotals().entrySet()) {
+            writer.write("  " + category.getKey() + ": items " + summary.categoryCounts().get(category.getKey())
+                    + ", quantity " + category.getValue() + "\n");
+        }
+        writer.write("Top items:\n");
+        for (GrocerySummary.ItemTotal item : summary.topItems()) {
+            writer.write("  " + item.name() + ", " + item.quantity() + "\n");
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+}
@@ -0,0 +1,267 @@
+package com.fges.projection;
+
+import com.fges.commands.AddItemCommand;
+import com.fges.commands.RemoveItemCommand;
+import com.fges.core.Event;
+import com.fges.core.EventBus;
+import com.fges.core.EventSubscriber;
+import com.fges.model.AddPolicy;
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+import com.fges.model.GrocerySummary;
+import com.fges.repository.GroceryItemVisitor;
+import com.fges.repository.GroceryReader;
+import com.fges.repository.GroceryRepository;
+import com.fges.repository.ItemCriteria;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Modèle de lecture tenu à jour par les événements du bus : articles par catégorie, nombre d'articles
+ * et total par catégorie, et quantité par article. Une fois chargée (load()), les requêtes sont servies depuis la mémoire,
+ * quel que soit l'historique ; c'est utile à un processus qui dure, comme le démon.
+ * Tant qu'elle n'est pas chargée, ou quand un autre processus a modifié les fichiers du stockage (seules leurs tailles
+ * et dates sont comparées), elle est déchargée et les lectures passent au stockage, en flux.
+ * Les événements doivent être livrés de façon synchrone, avant la lecture suivante.
+ */
+public class GroceryProjection implements EventSubscriber, GroceryReader {
+    private final Supplier<? extends GroceryRepository> store;
+
+    private final GroceryList items;
+    private final Map<String, Integer> categoryCounts = new LinkedHashMap<>();
+    private final Map<String, Long> categoryTotals = new LinkedHashMap<>();
+    // nom normalisé -> quantité totale, toutes catégories confondues
+    private final Map<String, Long> itemQuantities = new HashMap<>();
+    private boolean loaded;
+    private boolean exists;
+    private List<FileStamp> stamps;
+
+    public GroceryProjection(Supplier<? extends GroceryRepository> store) {
+        this(store, AddPolicy.MERGE);
+    }
+
+    /**
+     * @param store stockage lu au chargement (créé au premier besoin)
+     * @param addPolicy celle du stockage, pour que les ajouts reçus donnent le même état que lui
+     */
+    public GroceryProjection(Supplier<? extends GroceryRepository> store, AddPolicy addPolicy) {
+        this.store = store;
+        this.items = new GroceryList(addPolicy);
+    }
+
+    public void subscribeTo(EventBus eventBus) {
+        eventBus.subscribe("AddItemEvent", this);
+        eventBus.subscribe("RemoveItemEvent", this);
+        eventBus.subscribe("DeleteFileEvent", this);
+    }
+
+    @Override
+    public synchronized void handle(Event event) throws IOException {
+        // Pas chargée : le prochain chargement lira l'état qui contient déjà cet événement
+        if (!loaded) {
+            return;
+        }
+
+        switch (event.getName()) {
+            case "AddItemEvent" -> {
+                AddItemCommand.Payload payload = (AddItemCommand.Payload) event.getPayload();
+                added(new GroceryItem(payload.getItemName(), payload.getQuantity(), payload.getCategory()));
+                exists = true;
+            }
+            case "RemoveItemEvent" -> removed(((RemoveItemCommand.Payload) event.getPayload()).getItemName());
+            case "DeleteFileEvent" -> {
+                clear();
+                exists = false;
+            }
+            default -> {
+                return;
+            }
+        }
+        // Les relevés ont été comparés avant la commande (detectExternalChanges) :
+        // ce qui a changé depuis vient de cette commande
+        stamps = currentStamps();
+    }
+
+    /**
+     * À appeler avant chaque commande : si d'autres écritures ont eu lieu depuis le dernier relevé,
+     * la projection est déchargée, pour que handle() ne les fasse pas passer pour l'effet de la commande
+     */
+    public synchronized void detectExternalChanges() throws IOException {
+        isCurrent();
+    }
+
+    /**
+     * Charge la projection depuis le stockage si elle ne l'est pas déjà (ou plus)
+     */
+    public synchronized void load() throws IOException {
+        if (isCurrent()) {
+            return;
+        }
+        // Un chargement interrompu a pu laisser une partie des articles
+        clear();
+        GroceryRepository repository = store.get();
+        // Relevé avant la lecture : une écriture concurrente provoquera un nouveau chargement
+        stamps = currentStamps();
+        exists = repository.fileExists();
+        repository.forEachItem(item -> {
+            added(item);
+            return true;
+        });
+        loaded = true;
+    }
+
+    @Override
+    public synchronized Map<String, List<GroceryItem>> getAllItems() throws IOException {
+        return isCurrent() ? items.toCategoryMap() : store.get().getAllItems();
+    }
+
+    @Override
+    public synchronized boolean fileExists() throws IOException {
+        return isCurrent() ? exists : store.get().fileExists();
+    }
+
+    @Override
+    public synchronized List<GroceryItem> findItems(String itemName) throws IOException {
+        return isCurrent() ? items.find(itemName) : store.get().findItems(itemName);
+    }
+
+    @Override
+    public void forEachItem(GroceryItemVisitor visitor) throws IOException {
+        forEachItem(ItemCriteria.ALL, visitor);
+    }
+
+    @Override
+    public void forEachItem(ItemCriteria criteria, GroceryItemVisitor visitor) throws IOException {
+        // Copie sous verrou des seuls articles retenus, visite hors verrou
+        List<GroceryItem> selected;
+        synchronized (this) {
+            selected = isCurrent() ? select(criteria) : null;
+        }
+        if (selected == null) {
+            store.get().forEachItem(criteria, visitor);
+            return;
+        }
+        for (GroceryItem item : selected) {
+            if (!visitor.visit(item)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Somme des quantités par catégorie, dans l'ordre d'apparition des catégories (charge la projection)
+     */
+    public synchronized Map<String, Long> getCategoryTotals() throws IOException {
+        load();
+        return new LinkedHashMap<>(categoryTotals);
+    }
+
+    /**
+     * Quantité totale d'un article, toutes catégories confondues, 0 s'il est absent (charge la projection)
+     */
+    public synchronized long getItemQuantity(String itemName) throws IOException {
+        load();
+        return itemQuantities.getOrDefault(GroceryList.normalize(itemName), 0L);
+    }
+
+    /**
+     * Résumé tiré des compteurs : seuls les articles retenus dans le classement sont relus
+     */
+    @Override
+    public synchronized GrocerySummary summarize(int topN) throws IOException {
+        if (!isCurrent()) {
+            return store.get().summarize(topN);
+        }
+        long totalQuantity = 0;
+        for (long categoryTotal : categoryTotals.values()) {
+            totalQuantity += categoryTotal;
+        }
+        return new GrocerySummary(itemQuantities.size(), totalQuantity, categoryCounts, categoryTotals,
+                GrocerySummary.topItems(itemQuantities, topN, key -> items.find(key).get(0).name()));
+    }
+
+    /**
+     * Indique si la projection est chargée et à jour ; la décharge si les fichiers ont changé sans elle
+     */
+    private boolean isCurrent() throws IOException {
+        if (loaded && !stamps.equals(currentStamps())) {
+            clear();
+            loaded = false;
+        }
+        return loaded;
+    }
+
+    private List<GroceryItem> select(ItemCriteria criteria) {
+        List<GroceryItem> selected = new ArrayList<>();
+        for (String category : items.categoryNames()) {
+            if (criteria.matchesCategory(category)) {
+                for (GroceryItem item : items.itemsOf(category)) {
+                    if (criteria.matchesName(item.name())) {
+                        selected.add(item);
+                    }
+                }
+            }
+        }
+        return selected;
+    }
+
+    private void added(GroceryItem item) {
+        int sizeBefore = items.size();
+        items.add(item);
+        // Un article fusionné avec une entrée existante ne compte pas une seconde fois
+        if (items.size() > sizeBefore) {
+            categoryCounts.merge(item.category(), 1, Integer::sum);
+        }
+        categoryTotals.merge(item.category(), (long) item.quantity(), Long::sum);
+        itemQuantities.merge(GroceryList.normalize(item.name()), (long) item.quantity(), Long::sum);
+    }
+
+    private void removed(String itemName) {
+        List<GroceryItem> removedItems = items.find(itemName);
+        items.remove(itemName);
+        itemQuantities.remove(GroceryList.normalize(itemName));
+        for (GroceryItem item : removedItems) {
+            if (items.categoryNames().contains(item.category())) {
+                categoryCounts.merge(item.category(), -1, Integer::sum);
+                categoryTotals.merge(item.category(), (long) -item.quantity(), Long::sum);
+            } else {
+                categoryCounts.remove(item.category());
+                categoryTotals.remove(item.category());
+            }
+        }
+    }
+
+    private void clear() {
+        items.clear();
+        categoryCounts.clear();
+        categoryTotals.clear();
+        itemQuantities.clear();
+    }
+
+    private List<FileStamp> currentStamps() throws IOException {
+        List<FileStamp> current = new ArrayList<>();
+        for (Path file : store.get().getStorageFiles()) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                current.add(new FileStamp(attributes.size(), attributes.lastModifiedTime().toMillis()));
+            } catch (NoSuchFileException e) {
+                current.add(FileStamp.MISSING);
+            }
+        }
+        return current;
+    }
+
+    private record FileStamp(long size, long lastModified) {
+        static final FileStamp MISSING = new FileStamp(-1, -1);
+    }
+}
@@ -0,0 +1,35 @@
+package com.fges.queries;
+
+import com.fges.core.Query;
+
+/**
+ * Requête pour rechercher un article par son nom
+ */
+public class GetItemQuery implements Query<GetItemQuery.Parameters> {
+    private final String itemName;
+
+    public GetItemQuery(String itemName) {
+        this.itemName = itemName;
+    }
+
+    @Override
+    public Parameters getParameters() {
+        return new Parameters(itemName);
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public static class Parameters {
+        private final String itemName;
+
+        public Parameters(String itemName) {
+            this.itemName = itemName;
+        }
+
+        public String getItemName() {
+            return itemName;
+        }
+    }
+}
@@ -3,15 +3,77 @@ package com.fges.queries;
 import com.fges.core.Query;
 
 /**
- * Requête pour lister tous les articles
+ * Requête pour lister les articles, éventuellement filtrés, triés et paginés
  */
 public class ListItemsQuery implements Query<ListItemsQuery.Parameters> {
+    private final Parameters parameters;
+
+    public ListItemsQuery() {
+        this(new Parameters(null, null, 0, null, Sort.NONE));
+    }
+
+    public ListItemsQuery(Parameters parameters) {
+        this.parameters = parameters;
+    }
+
     @Override
     public Parameters getParameters() {
-        return new Parameters();
+        return parameters;
+    }
+
+    /**
+     * Ordre des articles à l'intérieur de chaque catégorie (les catégories sont alors triées par nom)
+     */
+    public enum Sort {
+        // Ordre du fichier
+        NONE,
+        NAME,
+        // Les plus grandes quantités d'abord
+        QUANTITY
     }
 
     public static class Parameters {
-        // Pas de paramètres spécifiques pour cette requête
+        private final String category;
+        private final String prefix;
+        private final int offset;
+        private final Integer limit;
+        private final Sort sort;
+
+        /**
+         * @param category catégorie à afficher, ou null pour toutes
+         * @param prefix début du nom des articles à afficher, ou null pour tous
+         * @param offset nombre d'articles à sauter
+         * @param limit nombre maximal d'articles à afficher, ou null sans limite
+         */
+        public Parameters(String category, String prefix, int offset, Integer limit, Sort sort) {
+            if (offset < 0 || (limit != null && limit < 0)) {
+                throw new IllegalArgumentException("Offset and limit must not be negative");
+            }
+            this.category = category;
+            this.prefix = prefix;
+            this.offset = offset;
+            this.limit = limit;
+            this.sort = sort;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public Integer getLimit() {
+            return limit;
+        }
+
+        public Sort getSort() {
+            return sort;
+        }
     }
-}
\ No newline at end of file
+}
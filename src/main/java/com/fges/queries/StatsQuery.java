@@ -0,0 +1,17 @@
+package com.fges.queries;
+
+import com.fges.core.Query;
+
+/**
+ * Requête pour afficher les métriques du processus (utile surtout avec le démon)
+ */
+public class StatsQuery implements Query<StatsQuery.Parameters> {
+    @Override
+    public Parameters getParameters() {
+        return new Parameters();
+    }
+
+    public static class Parameters {
+        // Pas de paramètres spécifiques pour cette requête
+    }
+}
@@ -0,0 +1,44 @@
+package com.fges.queries;
+
+import com.fges.core.Query;
+
+/**
+ * Requête pour résumer la liste : articles distincts, quantité totale, détail par catégorie et classement
+ */
+public class SummaryQuery implements Query<SummaryQuery.Parameters> {
+    public static final int DEFAULT_TOP = 5;
+
+    private final int topN;
+
+    public SummaryQuery() {
+        this(DEFAULT_TOP);
+    }
+
+    /**
+     * @param topN nombre d'articles du classement par quantité
+     */
+    public SummaryQuery(int topN) {
+        this.topN = topN;
+    }
+
+    @Override
+    public Parameters getParameters() {
+        return new Parameters(topN);
+    }
+
+    public int getTopN() {
+        return topN;
+    }
+
+    public static class Parameters {
+        private final int topN;
+
+        public Parameters(int topN) {
+            this.topN = topN;
+        }
+
+        public int getTopN() {
+            return topN;
+        }
+    }
+}
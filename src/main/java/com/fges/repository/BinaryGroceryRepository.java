@@ -0,0 +1,492 @@
+package com.fges.repository;
+
+import com.fges.model.AddPolicy;
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implémentation binaire du repository, projetée en mémoire.
+ * Le fichier principal contient des enregistrements de taille fixe (état, nom, clé, catégorie, quantité)
+ * qui référencent les chaînes d'une table partagée ("fichier.bin.strings") par leur position.
+ * Rien n'est analysé à l'ouverture : le premier résultat est disponible quelle que soit la taille de la liste.
+ * Une suppression marque l'enregistrement sur place et chaîne son emplacement dans une liste libre
+ * réutilisée par les ajouts suivants.
+ * Un article déjà présent dans la catégorie voit sa quantité augmenter sur place (voir AddPolicy) ;
+ * l'emplacement (et, pour une suppression, ceux de toutes les catégories) est retrouvé par un index en mémoire,
+ * reconstruit quand un autre processus a modifié le fichier.
+ */
+public class BinaryGroceryRepository implements GroceryRepository, Closeable {
+    private static final int RECORDS_MAGIC = 0x47524F43; // "GROC"
+    private static final int STRINGS_MAGIC = 0x47535452; // "GSTR"
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+
+    // En-tête du fichier d'enregistrements
+    private static final int SLOT_COUNT_OFFSET = 8;
+    private static final int LIVE_COUNT_OFFSET = 12;
+    private static final int FREE_HEAD_OFFSET = 16;
+    // Incrémenté à chaque modification des enregistrements : invalide les index des autres processus
+    private static final int GENERATION_OFFSET = 20;
+    private static final int RECORDS_HEADER_SIZE = 32;
+    private static final int INITIAL_RECORDS_SIZE = RECORDS_HEADER_SIZE + 1024 * 20;
+
+    // Enregistrement ; pour un emplacement libéré, le champ du nom contient l'emplacement libre suivant
+    private static final int RECORD_SIZE = 20;
+    private static final int FLAGS = 0;
+    private static final int NAME = 4;
+    private static final int KEY = 8;
+    private static final int CATEGORY = 12;
+    private static final int QUANTITY = 16;
+    private static final int LIVE = 1;
+    private static final int TOMBSTONE = 2;
+    private static final int NO_SLOT = -1;
+
+    // Table de chaînes : entrées (hash, longueur, octets UTF-8) ajoutées à la suite
+    private static final int STRINGS_END_OFFSET = 8;
+    private static final int STRINGS_HEADER_SIZE = 16;
+    private static final int STRING_ENTRY_HEADER = 8;
+    private static final int INITIAL_STRINGS_SIZE = 64 * 1024;
+    // Au-delà de ce nombre de recherches, la table est indexée en mémoire plutôt que parcourue
+    private static final int INDEX_THRESHOLD = 8;
+
+    private final Path recordsPath;
+    private final Path stringsPath;
+
+    private MappedFile records;
+    private MappedFile strings;
+    private Map<String, Integer> stringIndex;
+    // Fin de la partie de la table déjà indexée (un autre processus peut avoir ajouté des chaînes)
+    private int indexedEnd;
+    private int stringScans;
+    private final Map<Integer, String> categoryNames = new HashMap<>();
+    // (clé, catégorie) -> emplacement de l'article, et clé -> tous ses emplacements,
+    // valables pour la génération indexedGeneration
+    private Map<Long, Integer> slotIndex;
+    private Map<Integer, List<Integer>> keySlots;
+    private int indexedGeneration;
+
+    private final DurabilityPolicy durability;
+    private final PeriodicSync periodicSync;
+    private final AddPolicy addPolicy;
+
+    public BinaryGroceryRepository(String fileName) {
+        this(fileName, DurabilityPolicy.ALWAYS);
+    }
+
+    public BinaryGroceryRepository(String fileName, DurabilityPolicy durability) {
+        this(fileName, durability, AddPolicy.MERGE);
+    }
+
+    public BinaryGroceryRepository(String fileName, DurabilityPolicy durability, AddPolicy addPolicy) {
+        this.recordsPath = Paths.get(fileName);
+        this.stringsPath = Paths.get(fileName + ".strings");
+        this.durability = durability;
+        this.periodicSync = new PeriodicSync(durability);
+        this.addPolicy = addPolicy;
+    }
+
+    @Override
+    public synchronized void addItem(GroceryItem item) throws IOException {
+        open(true);
+        int key = intern(GroceryList.normalize(item.name()));
+        int category = intern(item.category());
+
+        if (addPolicy == AddPolicy.MERGE) {
+            Integer existing = slotIndex().get(slotKey(key, category));
+            if (existing != null) {
+                int offset = recordOffset(existing);
+                ByteBuffer buffer = records.buffer();
+                buffer.putInt(offset + QUANTITY, buffer.getInt(offset + QUANTITY) + item.quantity());
+                indexedGeneration = nextGeneration();
+                sync();
+                return;
+            }
+        }
+
+        int name = intern(item.name());
+        int slot = allocateSlot();
+        int offset = recordOffset(slot);
+        ByteBuffer buffer = records.buffer();
+        buffer.putInt(offset + NAME, name);
+        buffer.putInt(offset + KEY, key);
+        buffer.putInt(offset + CATEGORY, category);
+        buffer.putInt(offset + QUANTITY, item.quantity());
+        // L'état est écrit en dernier : un enregistrement à moitié écrit n'est jamais lu
+        buffer.putInt(offset + FLAGS, LIVE);
+        buffer.putInt(LIVE_COUNT_OFFSET, buffer.getInt(LIVE_COUNT_OFFSET) + 1);
+        boolean indexCurrent = isSlotIndexCurrent();
+        int generation = nextGeneration();
+        if (indexCurrent) {
+            slotIndex.putIfAbsent(slotKey(key, category), slot);
+            keySlots.computeIfAbsent(key, k -> new ArrayList<>()).add(slot);
+            indexedGeneration = generation;
+        }
+        sync();
+    }
+
+    @Override
+    public synchronized void removeItem(String itemName) throws IOException {
+        if (!open(false)) {
+            return;
+        }
+        Integer key = findString(GroceryList.normalize(itemName));
+        if (key == null) {
+            return;
+        }
+
+        // Les emplacements viennent de l'index : seuls ceux de l'article sont touchés
+        slotIndex();
+        List<Integer> slots = keySlots.remove(key);
+        if (slots == null) {
+            return;
+        }
+        ByteBuffer buffer = records.buffer();
+        for (int slot : slots) {
+            int offset = recordOffset(slot);
+            slotIndex.remove(slotKey(key, buffer.getInt(offset + CATEGORY)), slot);
+            // Suppression sur place : l'emplacement rejoint la liste libre
+            buffer.putInt(offset + FLAGS, TOMBSTONE);
+            buffer.putInt(offset + NAME, buffer.getInt(FREE_HEAD_OFFSET));
+            buffer.putInt(FREE_HEAD_OFFSET, slot);
+            buffer.putInt(LIVE_COUNT_OFFSET, buffer.getInt(LIVE_COUNT_OFFSET) - 1);
+        }
+        indexedGeneration = nextGeneration();
+        sync();
+    }
+
+    @Override
+    public synchronized void deleteFile() throws IOException {
+        if (!Files.exists(recordsPath)) {
+            throw new IOException("File not found: " + recordsPath);
+        }
+        close();
+        Files.delete(recordsPath);
+        Files.deleteIfExists(stringsPath);
+    }
+
+    @Override
+    public synchronized Map<String, List<GroceryItem>> getAllItems() throws IOException {
+        Map<String, List<GroceryItem>> items = new LinkedHashMap<>();
+        forEachItem(item -> items.computeIfAbsent(item.category(), k -> new ArrayList<>()).add(item));
+        return items;
+    }
+
+    @Override
+    public boolean fileExists() {
+        return Files.exists(recordsPath);
+    }
+
+    @Override
+    public synchronized List<GroceryItem> findItems(String itemName) throws IOException {
+        List<GroceryItem> found = new ArrayList<>();
+        if (!open(false)) {
+            return found;
+        }
+        Integer key = findString(GroceryList.normalize(itemName));
+        if (key == null) {
+            return found;
+        }
+
+        // Seuls les emplacements de l'article, donnés par l'index, sont lus
+        slotIndex();
+        for (int slot : keySlots.getOrDefault(key, List.of())) {
+            found.add(readItem(recordOffset(slot)));
+        }
+        return found;
+    }
+
+    @Override
+    public void forEachItem(GroceryItemVisitor visitor) throws IOException {
+        forEachItem(ItemCriteria.ALL, visitor);
+    }
+
+    /**
+     * Les enregistrements sont regroupés par catégorie en un seul parcours des identifiants, sans décoder les chaînes :
+     * les articles de la première catégorie retenue sont visités pendant le parcours, les emplacements des suivantes
+     * sont mis de côté puis visités dans l'ordre d'apparition des catégories
+     */
+    @Override
+    public synchronized void forEachItem(ItemCriteria criteria, GroceryItemVisitor visitor) throws IOException {
+        if (!open(false)) {
+            return;
+        }
+
+        ByteBuffer buffer = records.buffer();
+        int slotCount = buffer.getInt(SLOT_COUNT_OFFSET);
+        // Seuls les noms des catégories sont lus pour les filtrer, une fois chacun
+        Map<Integer, Boolean> selected = new HashMap<>();
+        Map<Integer, SlotList> pending = new LinkedHashMap<>();
+        int first = NO_SLOT;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int offset = recordOffset(slot);
+            if (buffer.getInt(offset + FLAGS) != LIVE) {
+                continue;
+            }
+            int category = buffer.getInt(offset + CATEGORY);
+            if (!selected.computeIfAbsent(category, c -> criteria.matchesCategory(categoryName(c)))) {
+                continue;
+            }
+            if (first == NO_SLOT) {
+                first = category;
+            }
+            if (category == first) {
+                if (!visit(offset, criteria, visitor)) {
+                    return;
+                }
+            } else {
+                pending.computeIfAbsent(category, c -> new SlotList()).add(slot);
+            }
+        }
+
+        for (SlotList slots : pending.values()) {
+            for (int i = 0; i < slots.size; i++) {
+                if (!visit(recordOffset(slots.slots[i]), criteria, visitor)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean visit(int offset, ItemCriteria criteria, GroceryItemVisitor visitor) throws IOException {
+        GroceryItem item = readItem(offset);
+        return !criteria.matchesName(item.name()) || visitor.visit(item);
+    }
+
+    @Override
+    public List<Path> getStorageFiles() {
+        return List.of(recordsPath, stringsPath);
+    }
+
+    /**
+     * Libère les projections puis synchronise les écritures encore en attente (politique interval)
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (records != null) {
+            records.close();
+            strings.close();
+            records = null;
+            strings = null;
+        }
+        stringIndex = null;
+        stringScans = 0;
+        categoryNames.clear();
+        slotIndex = null;
+        keySlots = null;
+        // Les pages modifiées restent dans le cache du système après la fin de la projection
+        periodicSync.close();
+    }
+
+    /**
+     * Projette les fichiers en mémoire
+     *
+     * @param create crée les fichiers s'ils n'existent pas
+     * @return false si les fichiers n'existent pas et ne doivent pas être créés
+     */
+    private boolean open(boolean create) throws IOException {
+        if (records != null) {
+            records.refresh();
+            strings.refresh();
+            return true;
+        }
+        if (!create && !Files.exists(recordsPath)) {
+            return false;
+        }
+
+        records = MappedFile.open(recordsPath, INITIAL_RECORDS_SIZE);
+        strings = MappedFile.open(stringsPath, INITIAL_STRINGS_SIZE);
+        try {
+            initHeader(records.buffer(), RECORDS_MAGIC);
+            if (records.buffer().getInt(SLOT_COUNT_OFFSET) == 0) {
+                records.buffer().putInt(FREE_HEAD_OFFSET, NO_SLOT);
+            }
+            initHeader(strings.buffer(), STRINGS_MAGIC);
+            if (strings.buffer().getInt(STRINGS_END_OFFSET) == 0) {
+                strings.buffer().putInt(STRINGS_END_OFFSET, STRINGS_HEADER_SIZE);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        return true;
+    }
+
+    private void sync() throws IOException {
+        // Les chaînes d'abord : un enregistrement durable ne référence jamais une chaîne perdue
+        if (durability.shouldSync()) {
+            strings.force();
+            records.force();
+        } else {
+            periodicSync.defer(stringsPath);
+            periodicSync.defer(recordsPath);
+        }
+    }
+
+    private void initHeader(ByteBuffer buffer, int magic) throws IOException {
+        int currentMagic = buffer.getInt(MAGIC_OFFSET);
+        if (currentMagic == 0) {
+            // Fichier neuf
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putInt(MAGIC_OFFSET, magic);
+        } else if (currentMagic != magic || buffer.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Not a binary grocery file: " + recordsPath);
+        }
+    }
+
+    private int allocateSlot() throws IOException {
+        ByteBuffer buffer = records.buffer();
+        int free = buffer.getInt(FREE_HEAD_OFFSET);
+        if (free != NO_SLOT) {
+            buffer.putInt(FREE_HEAD_OFFSET, buffer.getInt(recordOffset(free) + NAME));
+            return free;
+        }
+
+        int slot = buffer.getInt(SLOT_COUNT_OFFSET);
+        records.ensureCapacity((long) recordOffset(slot) + RECORD_SIZE);
+        records.buffer().putInt(SLOT_COUNT_OFFSET, slot + 1);
+        return slot;
+    }
+
+    /**
+     * Index des emplacements vivants, reconstruit s'il ne correspond plus à la génération du fichier.
+     * Un ancien fichier peut contenir plusieurs entrées pour un même article : la première reçoit les ajouts,
+     * toutes sont supprimées ensemble.
+     */
+    private Map<Long, Integer> slotIndex() {
+        if (!isSlotIndexCurrent()) {
+            ByteBuffer buffer = records.buffer();
+            Map<Long, Integer> index = new HashMap<>();
+            Map<Integer, List<Integer>> byKey = new HashMap<>();
+            int slotCount = buffer.getInt(SLOT_COUNT_OFFSET);
+            for (int slot = 0; slot < slotCount; slot++) {
+                int offset = recordOffset(slot);
+                if (buffer.getInt(offset + FLAGS) == LIVE) {
+                    int key = buffer.getInt(offset + KEY);
+                    index.putIfAbsent(slotKey(key, buffer.getInt(offset + CATEGORY)), slot);
+                    byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(slot);
+                }
+            }
+            slotIndex = index;
+            keySlots = byKey;
+            indexedGeneration = buffer.getInt(GENERATION_OFFSET);
+        }
+        return slotIndex;
+    }
+
+    private boolean isSlotIndexCurrent() {
+        return slotIndex != null && records.buffer().getInt(GENERATION_OFFSET) == indexedGeneration;
+    }
+
+    private int nextGeneration() {
+        ByteBuffer buffer = records.buffer();
+        int generation = buffer.getInt(GENERATION_OFFSET) + 1;
+        buffer.putInt(GENERATION_OFFSET, generation);
+        return generation;
+    }
+
+    private static long slotKey(int key, int category) {
+        return ((long) key << 32) | (category & 0xFFFFFFFFL);
+    }
+
+    private GroceryItem readItem(int offset) {
+        ByteBuffer buffer = records.buffer();
+        return new GroceryItem(readString(buffer.getInt(offset + NAME)), buffer.getInt(offset + QUANTITY),
+                categoryName(buffer.getInt(offset + CATEGORY)));
+    }
+
+    private String categoryName(int category) {
+        return categoryNames.computeIfAbsent(category, this::readString);
+    }
+
+    private int intern(String value) throws IOException {
+        Integer id = findString(value);
+        if (id != null) {
+            return id;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int end = strings.buffer().getInt(STRINGS_END_OFFSET);
+        strings.ensureCapacity((long) end + STRING_ENTRY_HEADER + bytes.length);
+        ByteBuffer buffer = strings.buffer();
+        buffer.putInt(end, value.hashCode());
+        buffer.putInt(end + 4, bytes.length);
+        buffer.put(end + STRING_ENTRY_HEADER, bytes);
+        // La fin de table est déplacée une fois l'entrée complète
+        buffer.putInt(STRINGS_END_OFFSET, end + STRING_ENTRY_HEADER + bytes.length);
+        return end;
+    }
+
+    /**
+     * Cherche une chaîne dans la table ; seules les entrées de même hash sont décodées
+     */
+    private Integer findString(String value) {
+        if (stringIndex == null && ++stringScans > INDEX_THRESHOLD) {
+            stringIndex = new HashMap<>();
+            indexedEnd = STRINGS_HEADER_SIZE;
+        }
+        if (stringIndex != null) {
+            updateStringIndex();
+            return stringIndex.get(value);
+        }
+
+        ByteBuffer buffer = strings.buffer();
+        int hash = value.hashCode();
+        int end = buffer.getInt(STRINGS_END_OFFSET);
+        for (int offset = STRINGS_HEADER_SIZE; offset < end; offset += STRING_ENTRY_HEADER + buffer.getInt(offset + 4)) {
+            if (buffer.getInt(offset) == hash && readString(offset).equals(value)) {
+                return offset;
+            }
+        }
+        return null;
+    }
+
+    private void updateStringIndex() {
+        ByteBuffer buffer = strings.buffer();
+        int end = buffer.getInt(STRINGS_END_OFFSET);
+        for (int offset = indexedEnd; offset < end; offset += STRING_ENTRY_HEADER + buffer.getInt(offset + 4)) {
+            stringIndex.putIfAbsent(readString(offset), offset);
+        }
+        indexedEnd = end;
+    }
+
+    private String readString(int offset) {
+        ByteBuffer buffer = strings.buffer();
+        byte[] bytes = new byte[buffer.getInt(offset + 4)];
+        buffer.get(offset + STRING_ENTRY_HEADER, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int recordOffset(int slot) {
+        return RECORDS_HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    /**
+     * Emplacements d'une catégorie mis de côté pendant le parcours, sans objet par emplacement
+     */
+    private static final class SlotList {
+        private int[] slots = new int[16];
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.fges.repository;
+
+import com.fges.model.AddPolicy;
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Décorateur qui garde la liste parsée en mémoire.
+ * Elle n'est relue que si la taille ou la date de modification d'un des fichiers du repository a changé.
+ * Les parcours ne remplissent pas le cache : tant qu'il est froid, ils lisent le stockage en flux.
+ */
+public class CachedGroceryRepository implements GroceryRepository, Closeable {
+    private final GroceryRepository delegate;
+
+    private GroceryList cachedList;
+    private Map<String, List<GroceryItem>> cachedItems;
+    private List<FileStamp> cachedStamps;
+
+    public CachedGroceryRepository(GroceryRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void addItem(GroceryItem item) throws IOException {
+        try {
+            delegate.addItem(item);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public synchronized void removeItem(String itemName) throws IOException {
+        try {
+            delegate.removeItem(itemName);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public synchronized void applyAll(List<GroceryOperation> operations) throws IOException {
+        try {
+            delegate.applyAll(operations);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public synchronized void deleteFile() throws IOException {
+        try {
+            delegate.deleteFile();
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public synchronized Map<String, List<GroceryItem>> getAllItems() throws IOException {
+        refreshIfChanged();
+        return cachedItems;
+    }
+
+    @Override
+    public synchronized List<GroceryItem> findItems(String itemName) throws IOException {
+        refreshIfChanged();
+        return cachedList.find(itemName);
+    }
+
+    @Override
+    public synchronized void forEachItem(GroceryItemVisitor visitor) throws IOException {
+        // Cache froid ou périmé : le parcours reste en flux, sans charger toute la liste
+        if (!isCurrent()) {
+            delegate.forEachItem(visitor);
+            return;
+        }
+        for (GroceryItem item : cachedList) {
+            if (!visitor.visit(item)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void forEachItem(ItemCriteria criteria, GroceryItemVisitor visitor) throws IOException {
+        if (!isCurrent()) {
+            delegate.forEachItem(criteria, visitor);
+            return;
+        }
+        // Les catégories écartées ne sont pas parcourues
+        for (String category : cachedList.categoryNames()) {
+            if (!criteria.matchesCategory(category)) {
+                continue;
+            }
+            for (GroceryItem item : cachedList.itemsOf(category)) {
+                if (criteria.matchesName(item.name()) && !visitor.visit(item)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean fileExists() throws IOException {
+        List<FileStamp> stamps = currentStamps();
+        if (cachedItems != null && stamps.equals(cachedStamps)) {
+            return stamps.stream().anyMatch(FileStamp::exists);
+        }
+        return delegate.fileExists();
+    }
+
+    @Override
+    public List<Path> getStorageFiles() {
+        return delegate.getStorageFiles();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    public synchronized void invalidate() {
+        cachedList = null;
+        cachedItems = null;
+        cachedStamps = null;
+    }
+
+    private boolean isCurrent() throws IOException {
+        return cachedItems != null && currentStamps().equals(cachedStamps);
+    }
+
+    private void refreshIfChanged() throws IOException {
+        // Les empreintes sont prises avant la lecture : une modification concurrente forcera un rechargement
+        List<FileStamp> stamps = currentStamps();
+        if (cachedItems == null || !stamps.equals(cachedStamps)) {
+            Map<String, List<GroceryItem>> items = delegate.getAllItems();
+            // Copie fidèle : les entrées sont déjà fusionnées (ou non) par le repository
+            cachedList = GroceryList.fromCategoryMap(items, AddPolicy.APPEND);
+            cachedItems = immutableCopy(items);
+            cachedStamps = stamps;
+        }
+    }
+
+    private List<FileStamp> currentStamps() throws IOException {
+        List<FileStamp> stamps = new ArrayList<>();
+        for (Path path : delegate.getStorageFiles()) {
+            stamps.add(FileStamp.of(path));
+        }
+        return stamps;
+    }
+
+    private static Map<String, List<GroceryItem>> immutableCopy(Map<String, List<GroceryItem>> items) {
+        Map<String, List<GroceryItem>> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, List<GroceryItem>> entry : items.entrySet()) {
+            copy.put(entry.getKey(), List.copyOf(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private record FileStamp(boolean exists, long size, FileTime lastModified) {
+        static FileStamp of(Path path) throws IOException {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return new FileStamp(true, attributes.size(), attributes.lastModifiedTime());
+            } catch (NoSuchFileException e) {
+                return new FileStamp(false, -1, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package com.fges.repository;
+
+import com.fges.model.AddPolicy;
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implémentation CSV du repository pour les courses.
+ * Format : une ligne d'en-tête "article,nombre,categorie" puis un article par ligne.
+ * Les ajouts sont écrits en fin de fichier ; les suppressions recopient le fichier en flux
+ * dans un fichier temporaire qui remplace ensuite l'original.
+ */
+public class CsvGroceryRepository implements GroceryRepository, Closeable {
+    private static final String HEADER = "article,nombre,categorie";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int FIELD_COUNT = 3;
+
+    private final String fileName;
+    private final Path rewriteFile;
+    private final DurabilityPolicy durability;
+    private final PeriodicSync periodicSync;
+    private final AddPolicy addPolicy;
+
+    public CsvGroceryRepository(String fileName) {
+        this(fileName, DurabilityPolicy.ALWAYS);
+    }
+
+    public CsvGroceryRepository(String fileName, DurabilityPolicy durability) {
+        this(fileName, durability, AddPolicy.MERGE);
+    }
+
+    /**
+     * @param addPolicy fusion (MERGE) ou non des lignes d'un même article à la lecture
+     */
+    public CsvGroceryRepository(String fileName, DurabilityPolicy durability, AddPolicy addPolicy) {
+        this.fileName = fileName;
+        this.rewriteFile = Paths.get(fileName + ".tmp");
+        this.durability = durability;
+        this.periodicSync = new PeriodicSync(durability);
+        this.addPolicy = addPolicy;
+    }
+
+    @Override
+    public void addItem(GroceryItem item) throws IOException {
+        appendRows(List.of(item));
+    }
+
+    @Override
+    public void removeItem(String itemName) throws IOException {
+        rewriteWithout(List.of(itemName));
+    }
+
+    @Override
+    public void applyAll(List<GroceryOperation> operations) throws IOException {
+        // Un ajout suivi d'une suppression du même article s'annule avant d'atteindre le fichier :
+        // le lot coûte au plus une recopie et un ajout en fin de fichier
+        List<GroceryItem> additions = new ArrayList<>();
+        List<String> removedNames = new ArrayList<>();
+        for (GroceryOperation operation : operations) {
+            if (operation.type() == GroceryOperation.Type.ADD) {
+                additions.add(operation.item());
+            } else {
+                removedNames.add(operation.itemName());
+                additions.removeIf(item -> item.hasName(operation.itemName()));
+            }
+        }
+
+        if (!removedNames.isEmpty()) {
+            rewriteWithout(removedNames);
+        }
+        if (!additions.isEmpty()) {
+            appendRows(additions);
+        }
+    }
+
+    @Override
+    public void deleteFile() throws IOException {
+        Path filePath = Paths.get(fileName);
+        // Fichier temporaire laissé par une réécriture interrompue
+        Files.deleteIfExists(rewriteFile);
+        if (Files.exists(filePath)) {
+            Files.delete(filePath);
+        } else {
+            throw new IOException("File not found: " + fileName);
+        }
+    }
+
+    @Override
+    public Map<String, List<GroceryItem>> getAllItems() throws IOException {
+        return loadList().toCategoryMap();
+    }
+
+    @Override
+    public boolean fileExists() throws IOException {
+        return Files.exists(Paths.get(fileName));
+    }
+
+    @Override
+    public List<GroceryItem> findItems(String itemName) throws IOException {
+        // Seules les lignes de cet article sont gardées, puis fusionnées comme à la lecture de la liste
+        GroceryList found = new GroceryList(addPolicy);
+        scanRows(item -> {
+            if (item.hasName(itemName)) {
+                found.add(item);
+            }
+            return true;
+        });
+        return found.find(itemName);
+    }
+
+    @Override
+    public void forEachItem(GroceryItemVisitor visitor) throws IOException {
+        forEachItem(ItemCriteria.ALL, visitor);
+    }
+
+    /**
+     * Les lignes du fichier ne sont pas triées par catégorie : chaque catégorie retenue est lue par un parcours
+     * du fichier, le premier relevant l'ordre des suivantes. Rien n'est gardé en mémoire, sauf avec la politique MERGE
+     * les articles fusionnés de la catégorie en cours.
+     */
+    @Override
+    public void forEachItem(ItemCriteria criteria, GroceryItemVisitor visitor) throws IOException {
+        Set<String> others = new LinkedHashSet<>();
+        if (!visitCategory(null, criteria, others, visitor)) {
+            return;
+        }
+        for (String category : others) {
+            if (!visitCategory(category, criteria, null, visitor)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public List<Path> getStorageFiles() {
+        return List.of(Paths.get(fileName));
+    }
+
+    /**
+     * Synchronise les écritures encore en attente (politique interval)
+     */
+    @Override
+    public void close() throws IOException {
+        periodicSync.close();
+    }
+
+    /**
+     * Parcourt les articles dans l'ordre des lignes du fichier, sans les charger tous en mémoire
+     */
+    public void scanRows(GroceryItemVisitor visitor) throws IOException {
+        Path filePath = Paths.get(fileName);
+        if (!Files.exists(filePath)) {
+            return;
+        }
+
+        try (CsvRecordReader reader = openReader(filePath)) {
+            // La première ligne est l'en-tête
+            if (!reader.next()) {
+                return;
+            }
+            while (reader.next()) {
+                GroceryItem item = toItem(reader);
+                if (item != null && !visitor.visit(item)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Visite en un parcours du fichier les articles d'une catégorie (la première retenue si category est null)
+     *
+     * @param others reçoit les autres catégories retenues, dans l'ordre d'apparition (null pour ne pas les relever)
+     * @return false si le visiteur a arrêté le parcours
+     */
+    private boolean visitCategory(String category, ItemCriteria criteria, Set<String> others,
+                                  GroceryItemVisitor visitor) throws IOException {
+        String[] current = {category};
+        boolean[] stopped = {false};
+        // nom normalisé -> article fusionné, pour la seule catégorie en cours
+        Map<String, GroceryItem> merged = new LinkedHashMap<>();
+        scanRows(item -> {
+            if (!criteria.matches(item)) {
+                return true;
+            }
+            if (current[0] == null) {
+                current[0] = item.category();
+            }
+            if (!current[0].equals(item.category())) {
+                if (others != null) {
+                    others.add(item.category());
+                }
+                return true;
+            }
+            if (addPolicy == AddPolicy.MERGE) {
+                merged.merge(GroceryList.normalize(item.name()), item,
+                        (first, next) -> first.withQuantity(first.quantity() + next.quantity()));
+                return true;
+            }
+            stopped[0] = !visitor.visit(item);
+            return !stopped[0];
+        });
+        if (stopped[0]) {
+            return false;
+        }
+
+        for (GroceryItem item : merged.values()) {
+            if (!visitor.visit(item)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private GroceryList loadList() throws IOException {
+        GroceryList list = new GroceryList(addPolicy);
+        scanRows(item -> {
+            list.add(item);
+            return true;
+        });
+        return list;
+    }
+
+    private void appendRows(List<GroceryItem> items) throws IOException {
+        StringBuilder rows = new StringBuilder();
+        for (GroceryItem item : items) {
+            appendRecord(rows, item.name(), Integer.toString(item.quantity()), item.category());
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+            long size = channel.size();
+            StringBuilder content = new StringBuilder();
+            if (size > 0 && !endsWithNewline(channel, size)) {
+                // Dernière ligne incomplète (arrêt pendant une écriture) : on ne la prolonge pas.
+                // Si elle ouvre un guillemet jamais refermé, elle est effacée : les lignes ajoutées seraient lues dans le champ
+                long lineStart = lastLineStart(channel, size);
+                if (opensUnclosedQuote(channel, lineStart, size)) {
+                    channel.truncate(lineStart);
+                    size = lineStart;
+                } else {
+                    content.append('\n');
+                }
+            }
+            if (size == 0) {
+                // S'il n'existe pas, on initialise le fichier avec un en-tête général
+                content.append(HEADER).append('\n');
+            }
+            content.append(rows);
+
+            // Une seule écriture séquentielle en fin de fichier
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(content.toString());
+            long position = size;
+            while (bytes.hasRemaining()) {
+                position += channel.write(bytes, position);
+            }
+            if (durability.shouldSync()) {
+                channel.force(false);
+                if (size == 0) {
+                    DurableFiles.forceDirectory(Paths.get(fileName).toAbsolutePath().getParent());
+                }
+            } else {
+                periodicSync.defer(Paths.get(fileName));
+            }
+        }
+    }
+
+    private void rewriteWithout(List<String> removedNames) throws IOException {
+        Path filePath = Paths.get(fileName);
+        if (!Files.exists(filePath)) {
+            return;
+        }
+
+        boolean removed = false;
+        try (CsvRecordReader reader = openReader(filePath);
+             Writer writer = new BufferedWriter(Channels.newWriter(FileChannel.open(rewriteFile,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                     StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            writer.write(HEADER);
+            writer.write('\n');
+            if (reader.next()) {
+                // On recopie chaque ligne, sauf celles dont l'article (premier champ) est supprimé
+                while (reader.next()) {
+                    if (matchesAny(reader, removedNames)) {
+                        removed = true;
+                        continue;
+                    }
+                    writeRecord(writer, reader);
+                }
+            }
+        }
+
+        if (removed) {
+            // Renommage atomique : une interruption laisse l'ancien fichier intact
+            boolean sync = durability.shouldSync();
+            DurableFiles.replace(rewriteFile, filePath, sync);
+            if (!sync) {
+                periodicSync.defer(filePath);
+            }
+        } else {
+            // Rien à supprimer : le fichier d'origine est conservé tel quel
+            Files.delete(rewriteFile);
+        }
+    }
+
+    private static CsvRecordReader openReader(Path filePath) throws IOException {
+        return new CsvRecordReader(Channels.newReader(FileChannel.open(filePath, StandardOpenOption.READ),
+                StandardCharsets.UTF_8), FIELD_COUNT);
+    }
+
+    private static boolean matchesAny(CsvRecordReader reader, List<String> names) {
+        for (String name : names) {
+            if (reader.fieldEqualsIgnoreCase(0, name.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static GroceryItem toItem(CsvRecordReader reader) {
+        // Lignes vides ou incomplètes ignorées
+        if (reader.fieldCount() < FIELD_COUNT) {
+            return null;
+        }
+        try {
+            return new GroceryItem(reader.field(0), reader.intField(1), reader.field(2));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean endsWithNewline(FileChannel channel, long size) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        return last.get(0) == '\n';
+    }
+
+    /**
+     * Début de la dernière ligne : juste après le dernier '\n', 0 s'il n'y en a pas
+     */
+    private static long lastLineStart(FileChannel channel, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long end = size;
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    /**
+     * Indique si la ligne [start, end) ouvre un champ entre guillemets qu'elle ne referme pas
+     * (nombre impair de guillemets, le premier en début de champ). Un nombre impair dont le premier ne commence
+     * pas un champ est la fin d'un champ sur plusieurs lignes, qui est complet.
+     */
+    private static boolean opensUnclosedQuote(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer line = ByteBuffer.allocate((int) (end - start));
+        while (line.hasRemaining()) {
+            if (channel.read(line, start + line.position()) < 0) {
+                break;
+            }
+        }
+        int quotes = 0;
+        int firstQuote = -1;
+        for (int i = 0; i < line.position(); i++) {
+            if (line.get(i) == '"') {
+                if (firstQuote < 0) {
+                    firstQuote = i;
+                }
+                quotes++;
+            }
+        }
+        if (quotes % 2 == 0) {
+            return false;
+        }
+        // Seuls des espaces peuvent séparer le guillemet ouvrant du début du champ
+        for (int i = firstQuote - 1; i >= 0; i--) {
+            byte b = line.get(i);
+            if (b == ',') {
+                return true;
+            }
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeRecord(Writer writer, CsvRecordReader reader) throws IOException {
+        for (int i = 0; i < reader.fieldCount(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(writer, reader.rawField(i));
+        }
+        writer.write('\n');
+    }
+
+    private static void appendRecord(StringBuilder out, String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            writeField(out, fields[i]);
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Écrit un champ, entre guillemets seulement s'il contient un séparateur, un guillemet ou un retour à la ligne,
+     * ou commence ou finit par un espace (qui serait retiré à la lecture)
+     */
+    private static void writeField(Appendable out, CharSequence value) throws IOException {
+        if (!needsQuotes(value)) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static boolean needsQuotes(CharSequence value) {
+        if (value.length() > 0 && (Character.isWhitespace(value.charAt(0))
+                || Character.isWhitespace(value.charAt(value.length() - 1)))) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,241 @@
+package com.fges.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lecteur CSV enregistrement par enregistrement (RFC 4180 : champs entre guillemets, "" pour un guillemet,
+ * retours à la ligne possibles dans un champ entre guillemets).
+ * Les champs sont lus dans des tampons réutilisés d'un enregistrement à l'autre : aucune expression
+ * régulière et aucune chaîne intermédiaire n'est créée pour une ligne.
+ * Les espaces autour d'un champ sans guillemets sont retirés ; ceux d'un champ entre guillemets sont conservés.
+ * Un guillemet jamais refermé (écriture interrompue) n'avale pas la suite du fichier : l'enregistrement tronqué
+ * est abandonné et la lecture reprend après le premier retour à la ligne du champ.
+ */
+final class CsvRecordReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private final StringBuilder[] fields;
+    private final boolean[] quoted;
+    // Reçoit les champs au-delà de la capacité, qui sont ignorés
+    private final StringBuilder overflow = new StringBuilder();
+    private int fieldCount;
+
+    // Texte brut lu depuis le premier retour à la ligne du champ entre guillemets en cours (null hors capture)
+    private StringBuilder captured;
+    // Texte relu avant la suite du fichier, après un enregistrement tronqué
+    private String replay;
+    private int replayPosition;
+
+    CsvRecordReader(Reader reader, int maxFields) {
+        this.reader = reader;
+        this.fields = new StringBuilder[maxFields];
+        this.quoted = new boolean[maxFields];
+        for (int i = 0; i < maxFields; i++) {
+            fields[i] = new StringBuilder();
+        }
+    }
+
+    /**
+     * Lit l'enregistrement suivant
+     *
+     * @return false à la fin du fichier
+     */
+    boolean next() throws IOException {
+        fieldCount = 0;
+        int c = read();
+        if (c == -1) {
+            return false;
+        }
+
+        StringBuilder field = startField();
+        boolean inQuotes = false;
+        boolean afterQuotes = false;
+        while (true) {
+            if (inQuotes) {
+                if (c == -1) {
+                    // Guillemet non fermé (fichier tronqué) : la suite est relue à partir du premier retour à la ligne
+                    if (captured == null) {
+                        return false;
+                    }
+                    replay = captured.toString();
+                    replayPosition = 0;
+                    captured = null;
+                    return next();
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        afterQuotes = true;
+                        captured = null;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n' && captured == null) {
+                        captured = new StringBuilder();
+                    }
+                    field.append((char) c);
+                }
+            } else {
+                if (c == -1 || c == '\n') {
+                    return true;
+                }
+                if (c == ',') {
+                    field = startField();
+                    afterQuotes = false;
+                } else if (c == '"' && isBlank(field)) {
+                    // Les espaces avant un guillemet ouvrant ne font pas partie du champ
+                    field.setLength(0);
+                    markQuoted();
+                    inQuotes = true;
+                } else if (afterQuotes && Character.isWhitespace(c)) {
+                    // Espaces entre le guillemet fermant et le séparateur
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            c = read();
+        }
+    }
+
+    int fieldCount() {
+        return Math.min(fieldCount, fields.length);
+    }
+
+    /**
+     * Valeur du champ pour la recopie, sans copie quand il n'y a pas d'espaces à retirer
+     */
+    CharSequence rawField(int index) {
+        StringBuilder field = fields[index];
+        if (quoted[index]) {
+            return field;
+        }
+        int start = trimStart(field);
+        int end = trimEnd(field, start);
+        return start == 0 && end == field.length() ? field : field.subSequence(start, end);
+    }
+
+    String field(int index) {
+        return quoted[index] ? fields[index].toString() : trimmed(fields[index]);
+    }
+
+    /**
+     * Lit un entier sans créer de chaîne
+     *
+     * @throws NumberFormatException si le champ n'est pas un entier
+     */
+    int intField(int index) {
+        StringBuilder field = fields[index];
+        int start = trimStart(field);
+        int end = trimEnd(field, start);
+        return Integer.parseInt(field, start, end, 10);
+    }
+
+    /**
+     * Compare le champ (espaces retirés) à une valeur sans tenir compte de la casse
+     */
+    boolean fieldEqualsIgnoreCase(int index, String value) {
+        StringBuilder field = fields[index];
+        int start = trimStart(field);
+        int end = trimEnd(field, start);
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char a = field.charAt(start + i);
+            char b = value.charAt(i);
+            if (a != b && Character.toLowerCase(a) != Character.toLowerCase(b)
+                    && Character.toUpperCase(a) != Character.toUpperCase(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private StringBuilder startField() {
+        StringBuilder field = fieldCount < fields.length ? fields[fieldCount] : overflow;
+        if (fieldCount < fields.length) {
+            quoted[fieldCount] = false;
+        }
+        fieldCount++;
+        field.setLength(0);
+        return field;
+    }
+
+    private void markQuoted() {
+        if (fieldCount <= fields.length) {
+            quoted[fieldCount - 1] = true;
+        }
+    }
+
+    private int read() throws IOException {
+        int c = nextChar();
+        if (captured != null && c != -1) {
+            captured.append((char) c);
+        }
+        return c;
+    }
+
+    private int nextChar() throws IOException {
+        if (replay != null) {
+            if (replayPosition < replay.length()) {
+                return replay.charAt(replayPosition++);
+            }
+            replay = null;
+        }
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    private static boolean isBlank(StringBuilder field) {
+        for (int i = 0; i < field.length(); i++) {
+            if (!Character.isWhitespace(field.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String trimmed(StringBuilder field) {
+        int start = trimStart(field);
+        int end = trimEnd(field, start);
+        return field.substring(start, end);
+    }
+
+    private static int trimStart(StringBuilder field) {
+        int start = 0;
+        while (start < field.length() && Character.isWhitespace(field.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(StringBuilder field, int start) {
+        int end = field.length();
+        while (end > start && Character.isWhitespace(field.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+}
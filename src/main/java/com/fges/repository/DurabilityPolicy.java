@@ -0,0 +1,92 @@
+package com.fges.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fréquence à laquelle les écritures sont forcées sur le disque (fsync).
+ * ALWAYS : chaque écriture est durable à son retour ; NEVER : le système décide (une coupure de courant
+ * peut perdre les dernières écritures) ; interval(n) : au plus une synchronisation immédiate toutes les n ms,
+ * les écritures qui n'en ont pas eu sont synchronisées par une tâche planifiée du repository au plus n ms plus tard.
+ * Dans tous les cas, un fichier remplacé l'est de façon atomique (fichier temporaire puis renommage).
+ */
+public final class DurabilityPolicy {
+    public static final DurabilityPolicy ALWAYS = new DurabilityPolicy(0);
+    public static final DurabilityPolicy NEVER = new DurabilityPolicy(-1);
+
+    private final long intervalMillis;
+    private final AtomicLong lastSync = new AtomicLong();
+
+    private DurabilityPolicy(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    public static DurabilityPolicy interval(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Sync interval must be positive: " + millis);
+        }
+        return new DurabilityPolicy(millis);
+    }
+
+    /**
+     * Lit "always", "never" ou un intervalle en millisecondes ("250" ou "250ms")
+     */
+    public static DurabilityPolicy parse(String value) {
+        String normalized = value.trim().toLowerCase();
+        if ("always".equals(normalized)) {
+            return ALWAYS;
+        }
+        if ("never".equals(normalized)) {
+            return NEVER;
+        }
+        if (normalized.endsWith("ms")) {
+            normalized = normalized.substring(0, normalized.length() - 2).trim();
+        }
+        try {
+            return interval(Long.parseLong(normalized));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unknown durability policy: " + value + " (expected always, never or a number of ms)");
+        }
+    }
+
+    /**
+     * Indique si l'écriture qui vient d'être faite doit être synchronisée, et note la synchronisation
+     */
+    public boolean shouldSync() {
+        if (intervalMillis <= 0) {
+            return intervalMillis == 0;
+        }
+        long now = System.currentTimeMillis();
+        long last = lastSync.get();
+        return now - last >= intervalMillis && lastSync.compareAndSet(last, now);
+    }
+
+    /**
+     * Heure (en ms) de la dernière synchronisation, immédiate ou planifiée, 0 s'il n'y en a pas eu
+     */
+    public long lastSyncMillis() {
+        return lastSync.get();
+    }
+
+    boolean isInterval() {
+        return intervalMillis > 0;
+    }
+
+    long intervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * Note une synchronisation planifiée, qui couvre les écritures faites avant millis
+     */
+    void synced(long millis) {
+        lastSync.accumulateAndGet(millis, Math::max);
+    }
+
+    @Override
+    public String toString() {
+        if (intervalMillis == 0) {
+            return "always";
+        }
+        return intervalMillis < 0 ? "never" : intervalMillis + "ms";
+    }
+}
@@ -0,0 +1,58 @@
+package com.fges.repository;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Opérations sur les fichiers qui survivent à un arrêt brutal
+ */
+final class DurableFiles {
+
+    private DurableFiles() {
+    }
+
+    static void force(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Remplace target par source (déjà entièrement écrit) : un lecteur voit l'ancien ou le nouveau contenu,
+     * jamais un fichier tronqué
+     *
+     * @param sync force le contenu de source avant le renommage, puis le renommage lui-même
+     */
+    static void replace(Path source, Path target, boolean sync) throws IOException {
+        if (sync) {
+            force(source);
+        }
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (sync) {
+            forceDirectory(target.toAbsolutePath().getParent());
+        }
+    }
+
+    /**
+     * Rend durable la création, la suppression ou le renommage d'une entrée du répertoire
+     */
+    static void forceDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Certains systèmes (Windows) ne permettent pas d'ouvrir un répertoire : le renommage reste atomique
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.fges.repository;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Journal binaire des événements, en ajout seul.
+ * En-tête (magie, version, identifiant tiré au hasard à la création) puis un enregistrement par événement :
+ * longueur, CRC32, type, nom, et pour un ajout la quantité et la catégorie (chaînes préfixées par leur longueur en UTF-8).
+ * L'identifiant distingue un journal supprimé puis recréé de celui qu'il remplace, quelle que soit sa taille.
+ * Un enregistrement tronqué ou altéré (arrêt pendant un ajout) termine le journal.
+ * Les journaux de la version 1 (sans identifiant) restent lisibles.
+ */
+final class EventJournal {
+    private static final int MAGIC = 0x47455654; // "GEVT"
+    private static final int VERSION = 2;
+    private static final int VERSION_1 = 1;
+    private static final int VERSION_1_HEADER_SIZE = 8;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final byte ITEM_ADDED = 1;
+    private static final byte ITEM_REMOVED = 2;
+
+    private final Path path;
+    private final DurabilityPolicy durability;
+    private final PeriodicSync periodicSync;
+
+    EventJournal(Path path, DurabilityPolicy durability, PeriodicSync periodicSync) {
+        this.path = path;
+        this.durability = durability;
+        this.periodicSync = periodicSync;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    boolean exists() {
+        return Files.exists(path);
+    }
+
+    /**
+     * Identifiant et taille du journal, lus en une seule ouverture
+     */
+    Stamp stamp() throws IOException {
+        if (!Files.exists(path)) {
+            return Stamp.MISSING;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            return new Stamp(header == null ? 0 : header.id(), channel.size());
+        }
+    }
+
+    /**
+     * Rejoue les événements à partir d'une position (0 pour tout le journal)
+     *
+     * @param from 0 ou une position renvoyée pour ce même journal (voir stamp())
+     * @return la position qui suit le dernier enregistrement complet
+     */
+    long replay(long from, Consumer<GroceryOperation> consumer) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = from;
+            if (from < VERSION_1_HEADER_SIZE) {
+                Header header = readHeader(channel);
+                if (header == null) {
+                    return 0;
+                }
+                position = header.size();
+            }
+            channel.position(position);
+
+            DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024));
+            byte[] payload = new byte[256];
+            CRC32 crc = new CRC32();
+            try {
+                while (position + RECORD_HEADER_SIZE <= size) {
+                    int length = input.readInt();
+                    int checksum = input.readInt();
+                    if (length <= 0 || position + RECORD_HEADER_SIZE + length > size) {
+                        break;
+                    }
+                    if (length > payload.length) {
+                        payload = new byte[Math.max(length, payload.length * 2)];
+                    }
+                    input.readFully(payload, 0, length);
+                    crc.reset();
+                    crc.update(payload, 0, length);
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+
+                    consumer.accept(decode(ByteBuffer.wrap(payload, 0, length)));
+                    position += RECORD_HEADER_SIZE + length;
+                }
+            } catch (EOFException e) {
+                // Fichier raccourci pendant la lecture
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Ajoute les événements en une seule écriture ; crée le journal (et son identifiant) s'il n'existe pas
+     *
+     * @param validEnd fin du dernier enregistrement complet : une fin tronquée au-delà est effacée avant l'ajout
+     * @return l'identifiant du journal et sa nouvelle fin
+     */
+    Stamp append(List<GroceryOperation> operations, long validEnd) throws IOException {
+        boolean created = !Files.exists(path);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Header header = readHeader(channel);
+            long size;
+            if (header == null) {
+                // Nouveau journal, ou en-tête tronqué par un arrêt pendant la création
+                header = new Header(newId(), HEADER_SIZE);
+                channel.truncate(0);
+                ByteBuffer bytes = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(header.id()).flip();
+                writeFully(channel, bytes, 0);
+                size = HEADER_SIZE;
+            } else {
+                size = channel.size();
+                if (validEnd >= header.size() && size > validEnd) {
+                    channel.truncate(validEnd);
+                    size = validEnd;
+                }
+            }
+
+            ByteBuffer records = encode(operations);
+            writeFully(channel, records, size);
+            long end = size + records.limit();
+
+            if (durability.shouldSync()) {
+                channel.force(false);
+                if (created) {
+                    DurableFiles.forceDirectory(path.toAbsolutePath().getParent());
+                }
+            } else {
+                periodicSync.defer(path);
+            }
+            return new Stamp(header.id(), end);
+        }
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * @return null si l'en-tête est absent ou incomplet
+     */
+    private Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(HEADER_SIZE);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, bytes.position()) < 0) {
+                break;
+            }
+        }
+        if (bytes.position() < VERSION_1_HEADER_SIZE) {
+            return null;
+        }
+        int version = bytes.getInt(4);
+        if (bytes.getInt(0) != MAGIC || (version != VERSION && version != VERSION_1)) {
+            throw new IOException("Not a grocery event journal: " + path);
+        }
+        if (version == VERSION_1) {
+            return new Header(0, VERSION_1_HEADER_SIZE);
+        }
+        return bytes.position() < HEADER_SIZE ? null : new Header(bytes.getLong(8), HEADER_SIZE);
+    }
+
+    private static long newId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
+    }
+
+    private static ByteBuffer encode(List<GroceryOperation> operations) throws IOException {
+        byte[][] strings = new byte[operations.size() * 2][];
+        int total = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            GroceryOperation operation = operations.get(i);
+            strings[2 * i] = encodeString(operation.itemName());
+            int length = 1 + 2 + strings[2 * i].length;
+            if (operation.type() == GroceryOperation.Type.ADD) {
+                strings[2 * i + 1] = encodeString(operation.category());
+                length += 4 + 2 + strings[2 * i + 1].length;
+            }
+            total += RECORD_HEADER_SIZE + length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < operations.size(); i++) {
+            GroceryOperation operation = operations.get(i);
+            int start = buffer.position();
+            buffer.position(start + RECORD_HEADER_SIZE);
+            if (operation.type() == GroceryOperation.Type.ADD) {
+                buffer.put(ITEM_ADDED);
+                putString(buffer, strings[2 * i]);
+                buffer.putInt(operation.quantity());
+                putString(buffer, strings[2 * i + 1]);
+            } else {
+                buffer.put(ITEM_REMOVED);
+                putString(buffer, strings[2 * i]);
+            }
+            int length = buffer.position() - start - RECORD_HEADER_SIZE;
+            crc.reset();
+            crc.update(buffer.array(), start + RECORD_HEADER_SIZE, length);
+            buffer.putInt(start, length);
+            buffer.putInt(start + 4, (int) crc.getValue());
+        }
+        return buffer.flip();
+    }
+
+    private static GroceryOperation decode(ByteBuffer payload) throws IOException {
+        byte type = payload.get();
+        String name = getString(payload);
+        if (type == ITEM_ADDED) {
+            int quantity = payload.getInt();
+            return new GroceryOperation(GroceryOperation.Type.ADD, name, quantity, getString(payload));
+        }
+        if (type == ITEM_REMOVED) {
+            return GroceryOperation.remove(name);
+        }
+        throw new IOException("Unknown event type " + type);
+    }
+
+    private static byte[] encodeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Value too long for the event journal: " + value.substring(0, 32) + "...");
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * @param id identifiant du journal, 0 s'il est absent ou de la version 1
+     * @param size taille du fichier
+     */
+    record Stamp(long id, long size) {
+        static final Stamp MISSING = new Stamp(0, 0);
+    }
+
+    /**
+     * @param size taille de l'en-tête, position du premier enregistrement
+     */
+    private record Header(long id, int size) {
+    }
+}
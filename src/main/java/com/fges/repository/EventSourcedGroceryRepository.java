@@ -0,0 +1,287 @@
+package com.fges.repository;
+
+import com.fges.model.AddPolicy;
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository par event sourcing : chaque ajout ou suppression (les faits publiés en AddItemEvent / RemoveItemEvent)
+ * est ajouté au journal binaire "fichier.events", qui n'est jamais réécrit et garde tout l'historique.
+ * L'état est reconstruit en rejouant le journal depuis le dernier snapshot ("fichier.events.snapshot"),
+ * pris automatiquement tous les N événements pour borner le temps de reprise.
+ * Entre deux appels, seuls les événements ajoutés depuis (par ce processus ou un autre) sont rejoués.
+ */
+public class EventSourcedGroceryRepository implements GroceryRepository, Closeable {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 1000;
+    private static final int SNAPSHOT_MAGIC = 0x47534E50; // "GSNP"
+    private static final int SNAPSHOT_VERSION = 2;
+
+    private final String fileName;
+    private final EventJournal journal;
+    private final Path snapshotPath;
+    private final Path snapshotTempPath;
+    private final int snapshotInterval;
+    private final DurabilityPolicy durability;
+    private final PeriodicSync periodicSync;
+
+    private final GroceryList state;
+    private boolean loaded;
+    // Identifiant du journal appliqué à l'état, et fin de la partie déjà appliquée
+    private long journalId;
+    private long position;
+    private long eventsSinceSnapshot;
+
+    public EventSourcedGroceryRepository(String fileName) {
+        this(fileName, DEFAULT_SNAPSHOT_INTERVAL, DurabilityPolicy.ALWAYS);
+    }
+
+    /**
+     * @param snapshotInterval nombre d'événements ajoutés au journal entre deux snapshots
+     */
+    public EventSourcedGroceryRepository(String fileName, int snapshotInterval, DurabilityPolicy durability) {
+        this(fileName, snapshotInterval, durability, AddPolicy.MERGE);
+    }
+
+    /**
+     * @param snapshotInterval nombre d'événements ajoutés au journal entre deux snapshots
+     * @param addPolicy effet, au rejeu, de l'ajout d'un article déjà présent dans sa catégorie
+     */
+    public EventSourcedGroceryRepository(String fileName, int snapshotInterval, DurabilityPolicy durability,
+                                         AddPolicy addPolicy) {
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be positive: " + snapshotInterval);
+        }
+        this.fileName = fileName;
+        this.periodicSync = new PeriodicSync(durability);
+        this.journal = new EventJournal(Paths.get(fileName), durability, periodicSync);
+        this.snapshotPath = Paths.get(fileName + ".snapshot");
+        this.snapshotTempPath = Paths.get(fileName + ".snapshot.tmp");
+        this.snapshotInterval = snapshotInterval;
+        this.durability = durability;
+        this.state = new GroceryList(addPolicy);
+    }
+
+    @Override
+    public synchronized void addItem(GroceryItem item) throws IOException {
+        append(List.of(GroceryOperation.add(item)));
+    }
+
+    @Override
+    public synchronized void removeItem(String itemName) throws IOException {
+        append(List.of(GroceryOperation.remove(itemName)));
+    }
+
+    @Override
+    public synchronized void applyAll(List<GroceryOperation> operations) throws IOException {
+        if (!operations.isEmpty()) {
+            append(operations);
+        }
+    }
+
+    @Override
+    public synchronized void deleteFile() throws IOException {
+        if (!journal.exists() && !Files.exists(snapshotPath)) {
+            throw new IOException("File not found: " + fileName);
+        }
+        // Le snapshot d'abord : sans journal, un snapshot restant décrirait une liste supprimée
+        Files.deleteIfExists(snapshotPath);
+        journal.delete();
+        state.clear();
+        loaded = false;
+        journalId = 0;
+        position = 0;
+        eventsSinceSnapshot = 0;
+    }
+
+    @Override
+    public synchronized Map<String, List<GroceryItem>> getAllItems() throws IOException {
+        refresh();
+        return state.toCategoryMap();
+    }
+
+    @Override
+    public boolean fileExists() {
+        return journal.exists();
+    }
+
+    @Override
+    public synchronized List<GroceryItem> findItems(String itemName) throws IOException {
+        refresh();
+        return state.find(itemName);
+    }
+
+    @Override
+    public void forEachItem(GroceryItemVisitor visitor) throws IOException {
+        forEachItem(ItemCriteria.ALL, visitor);
+    }
+
+    @Override
+    public void forEachItem(ItemCriteria criteria, GroceryItemVisitor visitor) throws IOException {
+        // Copie sous verrou des seuls articles retenus, visite hors verrou
+        List<GroceryItem> items = new ArrayList<>();
+        synchronized (this) {
+            refresh();
+            for (String category : state.categoryNames()) {
+                if (criteria.matchesCategory(category)) {
+                    for (GroceryItem item : state.itemsOf(category)) {
+                        if (criteria.matchesName(item.name())) {
+                            items.add(item);
+                        }
+                    }
+                }
+            }
+        }
+        for (GroceryItem item : items) {
+            if (!visitor.visit(item)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public List<Path> getStorageFiles() {
+        return List.of(journal.getPath(), snapshotPath);
+    }
+
+    /**
+     * Écrit l'état courant dans le snapshot : la prochaine reprise ne rejouera que les événements suivants
+     */
+    public synchronized void snapshot() throws IOException {
+        refresh();
+        writeSnapshot();
+    }
+
+    /**
+     * Synchronise les écritures encore en attente (politique interval)
+     */
+    @Override
+    public void close() throws IOException {
+        periodicSync.close();
+    }
+
+    private void append(List<GroceryOperation> operations) throws IOException {
+        refresh();
+        // Un journal créé par cet ajout reçoit son identifiant
+        EventJournal.Stamp written = journal.append(operations, position);
+        journalId = written.id();
+        position = written.size();
+        for (GroceryOperation operation : operations) {
+            apply(operation);
+        }
+        eventsSinceSnapshot += operations.size();
+
+        // Les écritures se font sous verrou exclusif : un seul processus écrit le snapshot
+        if (eventsSinceSnapshot >= snapshotInterval) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Applique les événements ajoutés depuis le dernier appel, ou reconstruit l'état si le journal a été remplacé
+     * (autre identifiant, même s'il a depuis dépassé la position connue) ou raccourci
+     */
+    private void refresh() throws IOException {
+        EventJournal.Stamp stamp = journal.stamp();
+        if (!loaded || stamp.id() != journalId || stamp.size() < position) {
+            reload(stamp);
+        } else if (stamp.size() > position) {
+            position = journal.replay(position, this::replayed);
+        }
+    }
+
+    private void reload(EventJournal.Stamp stamp) throws IOException {
+        state.clear();
+        journalId = stamp.id();
+        position = 0;
+        eventsSinceSnapshot = 0;
+
+        // Un snapshot d'un autre journal, ou plus long que celui-ci, ne lui correspond pas
+        long snapshotPosition = readSnapshot(stamp.id());
+        if (snapshotPosition > stamp.size()) {
+            state.clear();
+            snapshotPosition = 0;
+        }
+
+        position = journal.replay(snapshotPosition, this::replayed);
+        loaded = true;
+    }
+
+    private void replayed(GroceryOperation operation) {
+        apply(operation);
+        eventsSinceSnapshot++;
+    }
+
+    private void apply(GroceryOperation operation) {
+        if (operation.type() == GroceryOperation.Type.ADD) {
+            state.add(operation.item());
+        } else {
+            state.remove(operation.itemName());
+        }
+    }
+
+    /**
+     * Charge le snapshot dans l'état
+     *
+     * @param expectedJournalId identifiant du journal auquel le snapshot doit correspondre
+     * @return la position du journal qu'il couvre, 0 sans snapshot utilisable (le journal est alors rejoué en entier)
+     */
+    private long readSnapshot(long expectedJournalId) {
+        if (!Files.exists(snapshotPath)) {
+            return 0;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath), 64 * 1024))) {
+            if (input.readInt() != SNAPSHOT_MAGIC || input.readInt() != SNAPSHOT_VERSION
+                    || input.readLong() != expectedJournalId) {
+                return 0;
+            }
+            long journalPosition = input.readLong();
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = input.readUTF();
+                int quantity = input.readInt();
+                String category = input.readUTF();
+                state.add(new GroceryItem(name, quantity, category));
+            }
+            return journalPosition;
+        } catch (IOException e) {
+            // Le snapshot n'est qu'un raccourci : le journal complet fait foi
+            state.clear();
+            return 0;
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(snapshotTempPath), 64 * 1024))) {
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeInt(SNAPSHOT_VERSION);
+            output.writeLong(journalId);
+            output.writeLong(position);
+            output.writeInt(state.size());
+            for (GroceryItem item : state) {
+                output.writeUTF(item.name());
+                output.writeInt(item.quantity());
+                output.writeUTF(item.category());
+            }
+        }
+        boolean sync = durability.shouldSync();
+        DurableFiles.replace(snapshotTempPath, snapshotPath, sync);
+        if (!sync) {
+            periodicSync.defer(snapshotPath);
+        }
+        eventsSinceSnapshot = 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.fges.repository;
+
+import com.fges.model.GroceryItem;
+
+import java.io.IOException;
+
+/**
+ * Reçoit les articles un par un lors d'un parcours du repository
+ */
+@FunctionalInterface
+public interface GroceryItemVisitor {
+    /**
+     * @return false pour arrêter le parcours
+     */
+    boolean visit(GroceryItem item) throws IOException;
+}
@@ -0,0 +1,26 @@
+package com.fges.repository;
+
+import com.fges.model.GroceryItem;
+
+/**
+ * Opération élémentaire sur la liste de courses (ajout ou suppression d'un article)
+ */
+public record GroceryOperation(Type type, String itemName, int quantity, String category) {
+
+    public enum Type {
+        ADD,
+        REMOVE
+    }
+
+    public static GroceryOperation add(GroceryItem item) {
+        return new GroceryOperation(Type.ADD, item.name(), item.quantity(), item.category());
+    }
+
+    public static GroceryOperation remove(String itemName) {
+        return new GroceryOperation(Type.REMOVE, itemName, 0, null);
+    }
+
+    public GroceryItem item() {
+        return new GroceryItem(itemName, quantity, category);
+    }
+}
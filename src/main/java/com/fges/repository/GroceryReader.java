@@ -0,0 +1,43 @@
+package com.fges.repository;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.GrocerySummary;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Côté lecture : ce dont ont besoin les requêtes, servi par le stockage ou par une projection en mémoire
+ */
+public interface GroceryReader {
+    Map<String, List<GroceryItem>> getAllItems() throws IOException;
+    boolean fileExists() throws IOException;
+    List<GroceryItem> findItems(String itemName) throws IOException;
+
+    // Parcours des articles regroupés par catégorie ; les implémentations peuvent le faire sans tout charger
+    default void forEachItem(GroceryItemVisitor visitor) throws IOException {
+        for (List<GroceryItem> items : getAllItems().values()) {
+            for (GroceryItem item : items) {
+                if (!visitor.visit(item)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Parcours filtré ; les implémentations peuvent écarter les articles avant de les lire entièrement
+    default void forEachItem(ItemCriteria criteria, GroceryItemVisitor visitor) throws IOException {
+        forEachItem(item -> !criteria.matches(item) || visitor.visit(item));
+    }
+
+    // Résumé calculé en un seul parcours ; les implémentations qui tiennent des compteurs s'en servent directement
+    default GrocerySummary summarize(int topN) throws IOException {
+        GrocerySummary.Builder builder = new GrocerySummary.Builder();
+        forEachItem(item -> {
+            builder.add(item);
+            return true;
+        });
+        return builder.build(topN);
+    }
+}
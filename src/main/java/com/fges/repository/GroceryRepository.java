@@ -1,19 +1,34 @@
 package com.fges.repository;
 
+import com.fges.model.GroceryItem;
+
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
 
 /**
- * Repository pour accéder aux données (remplace StorageInterface)
+ * Repository pour accéder aux données (remplace StorageInterface) ; les lectures sont décrites par GroceryReader
  */
-public interface GroceryRepository {
+public interface GroceryRepository extends GroceryReader {
     // Commandes
-    void addItem(String itemName, int quantity, String category) throws IOException;
+    void addItem(GroceryItem item) throws IOException;
     void removeItem(String itemName) throws IOException;
     void deleteFile() throws IOException;
 
-    // Requêtes
-    Map<String, List<String>> getAllItems() throws IOException;
-    boolean fileExists() throws IOException;
+    // Applique plusieurs opérations ; les implémentations peuvent les écrire en une seule fois
+    default void applyAll(List<GroceryOperation> operations) throws IOException {
+        for (GroceryOperation operation : operations) {
+            switch (operation.type()) {
+                case ADD:
+                    addItem(operation.item());
+                    break;
+                case REMOVE:
+                    removeItem(operation.itemName());
+                    break;
+            }
+        }
+    }
+
+    // Fichiers sur disque qui portent l'état du repository
+    List<Path> getStorageFiles();
 }
\ No newline at end of file
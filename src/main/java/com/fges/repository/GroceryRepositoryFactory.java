@@ -1,14 +1,111 @@
 package com.fges.repository;
 
+import com.fges.metrics.Metrics;
+import com.fges.model.AddPolicy;
+
 /**
  * Factory pour créer le repository approprié selon le format
  */
 public class GroceryRepositoryFactory {
+
+    /**
+     * La politique de synchronisation est lue dans la propriété système grocery.durability
+     * (always, never ou un intervalle en ms ; always par défaut), l'attente maximale des verrous
+     * dans grocery.lockTimeoutMs, le nombre d'événements entre deux snapshots du format events dans grocery.snapshotEvery
+     * et la politique d'ajout dans grocery.addPolicy
+     */
     public static GroceryRepository createRepository(String fileName, String format) {
+        return createRepository(fileName, format, AddPolicy.configured(), null);
+    }
+
+    /**
+     * @param metrics registre qui reçoit les mesures d'accès au stockage, null pour ne rien mesurer
+     */
+    public static GroceryRepository createRepository(String fileName, String format, Metrics metrics) {
+        return createRepository(fileName, format, AddPolicy.configured(), metrics);
+    }
+
+    /**
+     * @param addPolicy politique d'ajout, résolue une fois par l'appelant
+     */
+    public static GroceryRepository createRepository(String fileName, String format, AddPolicy addPolicy,
+                                                     Metrics metrics) {
+        return createRepository(fileName, format, DurabilityPolicy.parse(System.getProperty("grocery.durability", "always")),
+                addPolicy, metrics);
+    }
+
+    public static GroceryRepository createRepository(String fileName, String format, DurabilityPolicy durability) {
+        return createRepository(fileName, format, durability, null);
+    }
+
+    public static GroceryRepository createRepository(String fileName, String format, DurabilityPolicy durability,
+                                                     Metrics metrics) {
+        return createRepository(fileName, format, durability, AddPolicy.MERGE, metrics);
+    }
+
+    public static GroceryRepository createRepository(String fileName, String format, DurabilityPolicy durability,
+                                                     AddPolicy addPolicy, Metrics metrics) {
+        return create(fileName, format, durability, addPolicy, metrics, true);
+    }
+
+    /**
+     * Repository sans cache, pour les copies en masse : un parcours unique est lu en flux
+     * au lieu de charger toute la liste en mémoire
+     */
+    public static GroceryRepository createUncachedRepository(String fileName, String format, DurabilityPolicy durability,
+                                                             Metrics metrics) {
+        return createUncachedRepository(fileName, format, durability, AddPolicy.MERGE, metrics);
+    }
+
+    public static GroceryRepository createUncachedRepository(String fileName, String format, DurabilityPolicy durability,
+                                                             AddPolicy addPolicy, Metrics metrics) {
+        return create(fileName, format, durability, addPolicy, metrics, false);
+    }
+
+    private static GroceryRepository create(String fileName, String format, DurabilityPolicy durability,
+                                            AddPolicy addPolicy, Metrics metrics, boolean cached) {
+        long lockTimeout = Long.getLong("grocery.lockTimeoutMs", LockingGroceryRepository.DEFAULT_TIMEOUT_MILLIS);
+
+        if ("events".equalsIgnoreCase(format)) {
+            // L'état reste en mémoire et ne rejoue que les nouveaux événements du journal : un cache n'apporterait rien
+            int snapshotInterval = Integer.getInteger("grocery.snapshotEvery", EventSourcedGroceryRepository.DEFAULT_SNAPSHOT_INTERVAL);
+            return new LockingGroceryRepository(
+                    instrument(new EventSourcedGroceryRepository(fileName, snapshotInterval, durability, addPolicy), metrics),
+                    fileName, lockTimeout, metrics);
+        }
+
+        if ("bin".equalsIgnoreCase(format)) {
+            // Le fichier projeté se lit sans analyse : un cache n'apporterait rien
+            return new LockingGroceryRepository(instrument(new BinaryGroceryRepository(fileName, durability, addPolicy), metrics),
+                    fileName, lockTimeout, metrics);
+        }
+
+        GroceryRepository repository;
         if ("csv".equalsIgnoreCase(format)) {
-            return new CsvGroceryRepository(fileName);
+            repository = new CsvGroceryRepository(fileName, durability, addPolicy);
         } else {
-            return new JsonGroceryRepository(fileName);
+            repository = new JsonGroceryRepository(fileName, durability, addPolicy);
         }
+        // Plusieurs processus peuvent travailler sur le même fichier sans perdre de mise à jour
+        repository = new LockingGroceryRepository(instrument(repository, metrics), fileName, lockTimeout, metrics);
+
+        // Les lectures répétées sur un fichier inchangé sont servies depuis la mémoire
+        return cached ? new CachedGroceryRepository(repository) : repository;
+    }
+
+    /**
+     * Format désigné par l'extension du fichier (json, csv, bin ou events), defaultFormat sinon
+     */
+    public static String formatOf(String fileName, String defaultFormat) {
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase();
+        return switch (extension) {
+            case "json", "csv", "bin", "events" -> extension;
+            default -> defaultFormat;
+        };
+    }
+
+    private static GroceryRepository instrument(GroceryRepository repository, Metrics metrics) {
+        return metrics == null ? repository : new InstrumentedGroceryRepository(repository, metrics);
     }
-}
\ No newline at end of file
+}
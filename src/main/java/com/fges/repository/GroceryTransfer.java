@@ -0,0 +1,278 @@
+package com.fges.repository;
+
+import com.fges.model.GroceryItem;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Copie en masse d'un stockage vers un autre (import/export entre formats), en deux étages :
+ * lecture en flux par le thread appelant, qui découpe les articles en blocs d'ajouts, et écriture par un thread dédié,
+ * dans l'ordre de lecture. Le décodage de la source et l'encodage de la cible se recouvrent ainsi.
+ * Les blocs en attente sont bornés : la mémoire ne dépend pas de la taille de la liste.
+ * Les écritures sont regroupées en lots de taille croissante : les formats qui réécrivent leur état
+ * (compaction JSON, snapshot du journal d'événements) ne le font qu'un nombre logarithmique de fois.
+ * La cible doit être ouverte sans synchronisation (DurabilityPolicy.NEVER) : ses fichiers sont rendus
+ * durables une seule fois, à la fin de la copie.
+ */
+public class GroceryTransfer {
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+    private static final int MAX_BATCH_SIZE = 1 << 19;
+    private static final int PENDING_CHUNKS = 4;
+    // Marque la fin de la lecture pour l'étage d'écriture (comparé par identité)
+    private static final List<GroceryOperation> END = new ArrayList<>(0);
+
+    private final int chunkSize;
+
+    public GroceryTransfer() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize nombre d'articles lus avant de passer un bloc à l'écriture
+     */
+    public GroceryTransfer(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Ajoute tous les articles de source à target, puis force les fichiers de target sur le disque.
+     * Les articles déjà présents dans target sont fusionnés selon sa politique d'ajout (AddPolicy) :
+     * avec MERGE, les quantités s'additionnent.
+     */
+    public Result transfer(GroceryReader source, GroceryRepository target) throws IOException {
+        long start = System.nanoTime();
+        BlockingQueue<List<GroceryOperation>> pending = new ArrayBlockingQueue<>(PENDING_CHUNKS);
+        Writer writer = new Writer(target, pending);
+        Thread writerThread = new Thread(writer, "grocery-transfer-writer");
+        writerThread.start();
+
+        long read = 0;
+        try {
+            read = read(source, pending, writer);
+        } finally {
+            // L'étage d'écriture s'arrête dans tous les cas, après les blocs déjà lus
+            putUninterruptibly(pending, END);
+            joinUninterruptibly(writerThread);
+        }
+        writer.rethrowFailure();
+
+        force(target);
+        return new Result(read, System.nanoTime() - start);
+    }
+
+    /**
+     * Supprime les fichiers d'une copie interrompue (repository déjà fermé)
+     */
+    public static void discard(GroceryRepository target) throws IOException {
+        for (Path file : target.getStorageFiles()) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Indique si deux repositories partagent un fichier : une copie de l'un vers l'autre attendrait
+     * le verrou exclusif pendant que la lecture garde le verrou partagé
+     */
+    public static boolean sharesStorage(GroceryRepository first, GroceryRepository second) {
+        Set<Path> files = new HashSet<>();
+        for (Path file : first.getStorageFiles()) {
+            files.add(file.toAbsolutePath().normalize());
+        }
+        for (Path file : second.getStorageFiles()) {
+            if (files.contains(file.toAbsolutePath().normalize())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long read(GroceryReader source, BlockingQueue<List<GroceryOperation>> pending, Writer writer)
+            throws IOException {
+        ChunkReader reader = new ChunkReader(pending, writer);
+        source.forEachItem(reader);
+        reader.submitChunk();
+        return reader.read;
+    }
+
+    private static void force(GroceryRepository target) throws IOException {
+        Path directory = null;
+        for (Path file : target.getStorageFiles()) {
+            if (Files.exists(file)) {
+                DurableFiles.force(file);
+                directory = file.toAbsolutePath().getParent();
+            }
+        }
+        // Les fichiers remplacés par renommage pendant la copie doivent aussi l'être dans le répertoire
+        if (directory != null) {
+            DurableFiles.forceDirectory(directory);
+        }
+    }
+
+    private static void putUninterruptibly(BlockingQueue<List<GroceryOperation>> queue,
+                                           List<GroceryOperation> chunk) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(chunk);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Étage de lecture : découpe le parcours de la source en blocs d'ajouts
+     */
+    private final class ChunkReader implements GroceryItemVisitor {
+        private final BlockingQueue<List<GroceryOperation>> pending;
+        private final Writer writer;
+        private List<GroceryOperation> chunk = new ArrayList<>(chunkSize);
+        private long read;
+
+        ChunkReader(BlockingQueue<List<GroceryOperation>> pending, Writer writer) {
+            this.pending = pending;
+            this.writer = writer;
+        }
+
+        @Override
+        public boolean visit(GroceryItem item) throws IOException {
+            chunk.add(GroceryOperation.add(item));
+            read++;
+            if (chunk.size() == chunkSize) {
+                submitChunk();
+            }
+            // Inutile de continuer à lire si l'écriture a échoué
+            return writer.failure == null;
+        }
+
+        void submitChunk() throws InterruptedIOException {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                // Bloque quand l'écriture est en retard
+                pending.put(chunk);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Transfer interrupted");
+            }
+            chunk = new ArrayList<>(chunkSize);
+        }
+    }
+
+    /**
+     * Étage d'écriture : prend les blocs dans l'ordre de lecture et les écrit par lots.
+     * Après un échec, les blocs restants sont abandonnés mais la file est toujours vidée,
+     * pour que la lecture ne reste jamais bloquée.
+     */
+    private final class Writer implements Runnable {
+        private final GroceryRepository target;
+        private final BlockingQueue<List<GroceryOperation>> pending;
+        private volatile Throwable failure;
+
+        Writer(GroceryRepository target, BlockingQueue<List<GroceryOperation>> pending) {
+            this.target = target;
+            this.pending = pending;
+        }
+
+        @Override
+        public void run() {
+            int batchSize = chunkSize;
+            List<GroceryOperation> batch = new ArrayList<>(batchSize);
+            while (true) {
+                List<GroceryOperation> chunk = takeUninterruptibly();
+                if (chunk == END) {
+                    break;
+                }
+                if (failure != null) {
+                    continue;
+                }
+
+                try {
+                    batch.addAll(chunk);
+                    if (batch.size() >= batchSize) {
+                        target.applyAll(batch);
+                        batch = new ArrayList<>(batchSize);
+                        batchSize = Math.min(batchSize * 2, MAX_BATCH_SIZE);
+                    }
+                } catch (Throwable e) {
+                    failure = e;
+                }
+            }
+
+            if (failure == null && !batch.isEmpty()) {
+                try {
+                    target.applyAll(batch);
+                } catch (Throwable e) {
+                    failure = e;
+                }
+            }
+        }
+
+        private List<GroceryOperation> takeUninterruptibly() {
+            while (true) {
+                try {
+                    return pending.take();
+                } catch (InterruptedException e) {
+                    // Seule la fin de la lecture arrête cet étage
+                }
+            }
+        }
+
+        void rethrowFailure() throws IOException {
+            if (failure instanceof IOException e) {
+                throw e;
+            }
+            if (failure instanceof UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (failure instanceof RuntimeException e) {
+                throw e;
+            }
+            if (failure instanceof Error e) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @param items articles lus dans la source et ajoutés à la cible
+     */
+    public record Result(long items, long elapsedNanos) {
+        public double itemsPerSecond() {
+            return elapsedNanos == 0 ? 0 : items * 1e9 / elapsedNanos;
+        }
+    }
+}
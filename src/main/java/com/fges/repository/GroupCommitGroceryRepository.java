@@ -0,0 +1,257 @@
+package com.fges.repository;
+
+import com.fges.model.AddPolicy;
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Décorateur "group commit" pour les écritures concurrentes (serveur web).
+ * L'état est servi depuis la mémoire ; les mutations reçues pendant une courte fenêtre
+ * sont écrites ensemble par un seul appel à applyAll, et chaque appelant attend
+ * que l'écriture qui le concerne soit terminée.
+ * L'état en mémoire n'est modifié qu'après l'écriture réussie d'un lot : un lot refusé n'y laisse aucune trace.
+ * Le repository suppose être le seul écrivain du fichier pendant sa durée de vie.
+ */
+public class GroupCommitGroceryRepository implements GroceryRepository, Closeable {
+    private final GroceryRepository delegate;
+    private final long maxDelayMillis;
+    private final GroceryList state;
+    private final BlockingQueue<PendingOperation> pending = new LinkedBlockingQueue<>();
+    // Signale au thread d'écriture qu'une opération attend
+    private final Semaphore signal = new Semaphore(0);
+    // Sérialise les écritures vers le delegate pour conserver l'ordre des lots
+    private final Object writeLock = new Object();
+    // Rend l'ajout à la file et la fermeture exclusifs : aucune opération n'arrive après la dernière écriture
+    private final Object enqueueLock = new Object();
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    public GroupCommitGroceryRepository(GroceryRepository delegate, long maxDelayMillis) throws IOException {
+        this(delegate, maxDelayMillis, AddPolicy.MERGE);
+    }
+
+    /**
+     * @param maxDelayMillis durée pendant laquelle les mutations sont regroupées avant l'écriture
+     * @param addPolicy celle du delegate, pour que l'état en mémoire reste identique au sien
+     */
+    public GroupCommitGroceryRepository(GroceryRepository delegate, long maxDelayMillis, AddPolicy addPolicy)
+            throws IOException {
+        this.delegate = delegate;
+        this.maxDelayMillis = maxDelayMillis;
+        this.state = GroceryList.fromCategoryMap(delegate.getAllItems(), addPolicy);
+        this.flusher = new Thread(this::flushLoop, "grocery-group-commit");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public void addItem(GroceryItem item) throws IOException {
+        await(enqueue(GroceryOperation.add(item)));
+    }
+
+    @Override
+    public void removeItem(String itemName) throws IOException {
+        await(enqueue(GroceryOperation.remove(itemName)));
+    }
+
+    @Override
+    public void applyAll(List<GroceryOperation> operations) throws IOException {
+        List<CompletableFuture<Void>> committed = new ArrayList<>(operations.size());
+        // Les opérations d'un même appel se suivent dans la file
+        synchronized (enqueueLock) {
+            for (GroceryOperation operation : operations) {
+                committed.add(enqueue(operation));
+            }
+        }
+        for (CompletableFuture<Void> future : committed) {
+            await(future);
+        }
+    }
+
+    @Override
+    public void deleteFile() throws IOException {
+        synchronized (writeLock) {
+            flushPending();
+            delegate.deleteFile();
+            synchronized (state) {
+                state.clear();
+            }
+        }
+    }
+
+    @Override
+    public Map<String, List<GroceryItem>> getAllItems() {
+        synchronized (state) {
+            return state.toCategoryMap();
+        }
+    }
+
+    @Override
+    public boolean fileExists() throws IOException {
+        synchronized (state) {
+            return !state.isEmpty() || !pending.isEmpty() || delegate.fileExists();
+        }
+    }
+
+    @Override
+    public List<GroceryItem> findItems(String itemName) {
+        synchronized (state) {
+            return state.find(itemName);
+        }
+    }
+
+    @Override
+    public void forEachItem(GroceryItemVisitor visitor) throws IOException {
+        forEachItem(ItemCriteria.ALL, visitor);
+    }
+
+    @Override
+    public void forEachItem(ItemCriteria criteria, GroceryItemVisitor visitor) throws IOException {
+        // Copie sous verrou des seuls articles retenus, visite hors verrou pour ne pas bloquer les écritures
+        List<GroceryItem> items = new ArrayList<>();
+        synchronized (state) {
+            for (String category : state.categoryNames()) {
+                if (criteria.matchesCategory(category)) {
+                    for (GroceryItem item : state.itemsOf(category)) {
+                        if (criteria.matchesName(item.name())) {
+                            items.add(item);
+                        }
+                    }
+                }
+            }
+        }
+        for (GroceryItem item : items) {
+            if (!visitor.visit(item)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public List<Path> getStorageFiles() {
+        return delegate.getStorageFiles();
+    }
+
+    /**
+     * Écrit les mutations en attente, arrête le thread d'écriture puis ferme le repository délégué
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (enqueueLock) {
+            closed = true;
+        }
+        signal.release();
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writeLock) {
+            flushPending();
+        }
+
+        // Filet de sécurité : aucun appelant ne doit attendre une écriture qui n'aura jamais lieu
+        List<PendingOperation> leftover = new ArrayList<>();
+        pending.drainTo(leftover);
+        IOException closedException = new IOException("Repository is closed");
+        leftover.forEach(pendingOperation -> pendingOperation.committed().completeExceptionally(closedException));
+
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(GroceryOperation operation) throws IOException {
+        PendingOperation pendingOperation = new PendingOperation(operation, new CompletableFuture<>());
+        synchronized (enqueueLock) {
+            if (closed) {
+                throw new IOException("Repository is closed");
+            }
+            pending.add(pendingOperation);
+        }
+        signal.release();
+        return pendingOperation.committed();
+    }
+
+    private void flushLoop() {
+        try {
+            while (true) {
+                signal.acquire();
+                if (closed) {
+                    // close() écrit lui-même les opérations restantes
+                    return;
+                }
+
+                // On laisse aux autres requêtes le temps de rejoindre le lot
+                Thread.sleep(maxDelayMillis);
+                synchronized (writeLock) {
+                    signal.drainPermits();
+                    flushPending();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Appelé avec writeLock
+    private void flushPending() {
+        List<PendingOperation> batch = new ArrayList<>();
+        pending.drainTo(batch);
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<PendingOperation> batch) {
+        List<GroceryOperation> operations = new ArrayList<>(batch.size());
+        for (PendingOperation pendingOperation : batch) {
+            operations.add(pendingOperation.operation());
+        }
+
+        try {
+            delegate.applyAll(operations);
+        } catch (Exception e) {
+            batch.forEach(pendingOperation -> pendingOperation.committed().completeExceptionally(e));
+            return;
+        }
+
+        // L'état suit le fichier : il n'est modifié qu'une fois le lot écrit, avant de libérer les appelants
+        synchronized (state) {
+            for (GroceryOperation operation : operations) {
+                if (operation.type() == GroceryOperation.Type.ADD) {
+                    state.add(operation.item());
+                } else {
+                    state.remove(operation.itemName());
+                }
+            }
+        }
+        batch.forEach(pendingOperation -> pendingOperation.committed().complete(null));
+    }
+
+    private static void await(CompletableFuture<Void> committed) throws IOException {
+        try {
+            committed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the write", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not write grocery list: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private record PendingOperation(GroceryOperation operation, CompletableFuture<Void> committed) {
+    }
+}
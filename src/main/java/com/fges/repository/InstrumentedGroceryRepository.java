@@ -0,0 +1,138 @@
+package com.fges.repository;
+
+import com.fges.metrics.Metrics;
+import com.fges.model.GroceryItem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Décorateur qui mesure les accès au stockage : durées des lectures et écritures,
+ * et taille des fichiers après chaque écriture (jauge "storage.size.<fichier>", une par repository).
+ * Placé sous le verrou, il ne compte pas l'attente des autres processus.
+ */
+public class InstrumentedGroceryRepository implements GroceryRepository, Closeable {
+    private final GroceryRepository delegate;
+    private final Metrics metrics;
+    private final String sizeGauge;
+
+    public InstrumentedGroceryRepository(GroceryRepository delegate, Metrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.sizeGauge = "storage.size." + delegate.getStorageFiles().get(0).getFileName();
+    }
+
+    @Override
+    public void addItem(GroceryItem item) throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.addItem(item);
+        } finally {
+            recordWrite(start);
+        }
+    }
+
+    @Override
+    public void removeItem(String itemName) throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.removeItem(itemName);
+        } finally {
+            recordWrite(start);
+        }
+    }
+
+    @Override
+    public void applyAll(List<GroceryOperation> operations) throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.applyAll(operations);
+        } finally {
+            recordWrite(start);
+        }
+    }
+
+    @Override
+    public void deleteFile() throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteFile();
+        } finally {
+            recordWrite(start);
+        }
+    }
+
+    @Override
+    public Map<String, List<GroceryItem>> getAllItems() throws IOException {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllItems();
+        } finally {
+            metrics.recordTime("repository.read", start);
+        }
+    }
+
+    @Override
+    public boolean fileExists() throws IOException {
+        return delegate.fileExists();
+    }
+
+    @Override
+    public List<GroceryItem> findItems(String itemName) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return delegate.findItems(itemName);
+        } finally {
+            metrics.recordTime("repository.read", start);
+        }
+    }
+
+    @Override
+    public void forEachItem(GroceryItemVisitor visitor) throws IOException {
+        forEachItem(ItemCriteria.ALL, visitor);
+    }
+
+    @Override
+    public void forEachItem(ItemCriteria criteria, GroceryItemVisitor visitor) throws IOException {
+        // Le temps passé dans le visiteur (écriture de la sortie) est compté avec la lecture
+        long start = System.nanoTime();
+        try {
+            delegate.forEachItem(criteria, visitor);
+        } finally {
+            metrics.recordTime("repository.read", start);
+        }
+    }
+
+    @Override
+    public List<Path> getStorageFiles() {
+        return delegate.getStorageFiles();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private void recordWrite(long start) {
+        metrics.recordTime("repository.write", start);
+        metrics.setGauge(sizeGauge, storageSize());
+    }
+
+    private long storageSize() {
+        long size = 0;
+        for (Path file : delegate.getStorageFiles()) {
+            try {
+                size += Files.size(file);
+            } catch (IOException e) {
+                // Fichier absent (pas encore créé ou supprimé)
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,23 @@
+package com.fges.repository;
+
+import com.fges.model.GroceryItem;
+
+/**
+ * Filtre transmis au repository pour qu'il écarte les articles au plus tôt pendant le parcours.
+ * Un champ null ne filtre pas ; les comparaisons ne tiennent pas compte de la casse.
+ */
+public record ItemCriteria(String category, String namePrefix) {
+    public static final ItemCriteria ALL = new ItemCriteria(null, null);
+
+    public boolean matchesCategory(String itemCategory) {
+        return category == null || category.equalsIgnoreCase(itemCategory);
+    }
+
+    public boolean matchesName(String name) {
+        return namePrefix == null || name.regionMatches(true, 0, namePrefix, 0, namePrefix.length());
+    }
+
+    public boolean matches(GroceryItem item) {
+        return matchesCategory(item.category()) && matchesName(item.name());
+    }
+}
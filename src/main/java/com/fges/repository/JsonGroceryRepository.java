@@ -1,101 +1,440 @@
 package com.fges.repository;
 
-import java.io.File;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Set;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fges.model.AddPolicy;
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
 
 /**
- * Implémentation JSON du repository pour les courses
+ * Implémentation JSON du repository pour les courses.
+ * Format du snapshot : {"categorie": [{"name": "Milk", "quantity": 2}]}
+ * (l'ancien format {"categorie": ["Milk, 2"]} est toujours accepté en lecture).
+ * Les mutations sont ajoutées dans un journal ("fichier.json.log") puis
+ * compactées périodiquement dans le snapshot JSON.
+ * Le snapshot est lu et écrit en flux (JsonParser / JsonGenerator), sans jamais être chargé en entier sous forme de texte.
  */
-public class JsonGroceryRepository implements GroceryRepository {
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+public class JsonGroceryRepository implements GroceryRepository, Closeable {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+
     private final String fileName;
+    private final OperationLog log;
+    private final Path compactionFile;
+    private final long compactionThreshold;
+    private final DurabilityPolicy durability;
+    private final PeriodicSync periodicSync;
+    private final AddPolicy addPolicy;
 
     public JsonGroceryRepository(String fileName) {
-        this.fileName = fileName;
+        this(fileName, DEFAULT_COMPACTION_THRESHOLD);
     }
 
-    @Override
-    public void addItem(String itemName, int quantity, String category) throws IOException {
-        Map<String, List<String>> categoryMap = getAllItemsInternal();
+    public JsonGroceryRepository(String fileName, long compactionThreshold) {
+        this(fileName, compactionThreshold, DurabilityPolicy.ALWAYS);
+    }
 
-        // Ajoute l'article dans la catégorie spécifiée
-        categoryMap.putIfAbsent(category, new ArrayList<>());
-        categoryMap.get(category).add(itemName + ", " + quantity);
+    public JsonGroceryRepository(String fileName, DurabilityPolicy durability) {
+        this(fileName, DEFAULT_COMPACTION_THRESHOLD, durability);
+    }
+
+    public JsonGroceryRepository(String fileName, long compactionThreshold, DurabilityPolicy durability) {
+        this(fileName, compactionThreshold, durability, AddPolicy.MERGE);
+    }
 
-        // Sauvegarde la map complète dans le fichier
-        OBJECT_MAPPER.writeValue(new File(fileName), categoryMap);
+    public JsonGroceryRepository(String fileName, DurabilityPolicy durability, AddPolicy addPolicy) {
+        this(fileName, DEFAULT_COMPACTION_THRESHOLD, durability, addPolicy);
+    }
+
+    /**
+     * @param compactionThreshold taille du journal (en octets) au-delà de laquelle il est compacté dans le snapshot
+     * @param durability synchronisation des ajouts au journal et des snapshots
+     * @param addPolicy effet de l'ajout d'un article déjà présent dans sa catégorie
+     */
+    public JsonGroceryRepository(String fileName, long compactionThreshold, DurabilityPolicy durability,
+                                 AddPolicy addPolicy) {
+        this.fileName = fileName;
+        this.periodicSync = new PeriodicSync(durability);
+        this.log = new OperationLog(Paths.get(fileName + ".log"), durability, periodicSync);
+        this.compactionFile = Paths.get(fileName + ".compact");
+        this.compactionThreshold = compactionThreshold;
+        this.durability = durability;
+        this.addPolicy = addPolicy;
     }
 
     @Override
-    public void removeItem(String itemName) throws IOException {
-        Map<String, List<String>> categoryMap = getAllItemsInternal();
+    public void addItem(GroceryItem item) throws IOException {
+        append(GroceryOperation.add(item));
+    }
 
-        // Pour chaque catégorie, on filtre les articles dont le nom correspond exactement à itemName
-        for (Map.Entry<String, List<String>> entry : categoryMap.entrySet()) {
-            List<String> updatedList = entry.getValue().stream()
-                    .filter(item -> {
-                        // On attend un format "article, quantity"
-                        String[] parts = item.split(",");
-                        if (parts.length > 0) {
-                            String article = parts[0].trim().toLowerCase();
-                            return !article.equals(itemName);
-                        }
-                        return true;
-                    })
-                    .collect(Collectors.toList());
-            // On met à jour la liste pour la catégorie, même si elle devient vide
-            entry.setValue(updatedList);
-        }
+    @Override
+    public void removeItem(String itemName) throws IOException {
+        append(GroceryOperation.remove(itemName));
+    }
 
-        // Sauvegarde de la map mise à jour
-        OBJECT_MAPPER.writeValue(new File(fileName), categoryMap);
+    @Override
+    public void applyAll(List<GroceryOperation> operations) throws IOException {
+        // Toutes les opérations partent dans un seul ajout au journal
+        append(operations);
     }
 
     @Override
     public void deleteFile() throws IOException {
         Path filePath = Paths.get(fileName);
-        if (Files.exists(filePath)) {
-            Files.delete(filePath);
+        if (Files.exists(filePath) || log.exists()) {
+            Files.deleteIfExists(filePath);
+            log.delete();
+            Files.deleteIfExists(compactionFile);
         } else {
             throw new IOException("File not found: " + fileName);
         }
     }
 
     @Override
-    public Map<String, List<String>> getAllItems() throws IOException {
-        return getAllItemsInternal();
+    public Map<String, List<GroceryItem>> getAllItems() throws IOException {
+        return loadState().toCategoryMap();
     }
 
     @Override
     public boolean fileExists() throws IOException {
-        return Files.exists(Paths.get(fileName));
+        return Files.exists(Paths.get(fileName)) || log.exists();
+    }
+
+    @Override
+    public List<GroceryItem> findItems(String itemName) throws IOException {
+        return loadState().find(itemName);
+    }
+
+    @Override
+    public void forEachItem(GroceryItemVisitor visitor) throws IOException {
+        forEachItem(ItemCriteria.ALL, visitor);
+    }
+
+    /**
+     * Parcourt le snapshot en flux en y appliquant le journal : seuls le journal (borné par la compaction)
+     * et la catégorie courante sont en mémoire, et le visiteur reçoit les premiers articles avant la fin de la lecture.
+     * Avec MERGE, les entrées d'un même article dans une catégorie (ancien snapshot) sont fusionnées comme au chargement ;
+     * avec APPEND, les articles sont transmis un à un.
+     * Les catégories écartées par le filtre sont sautées sans lire leurs articles.
+     */
+    @Override
+    public void forEachItem(ItemCriteria criteria, GroceryItemVisitor visitor) throws IOException {
+        recoverInterruptedCompaction();
+
+        // Noms supprimés par le journal (masqués dans le snapshot) et ajouts du journal encore présents
+        Set<String> removedNames = new HashSet<>();
+        GroceryList logAdditions = new GroceryList(addPolicy);
+        for (GroceryOperation operation : log.readAll()) {
+            if (operation.type() == GroceryOperation.Type.ADD) {
+                logAdditions.add(operation.item());
+            } else {
+                removedNames.add(GroceryList.normalize(operation.itemName()));
+                logAdditions.remove(operation.itemName());
+            }
+        }
+
+        Set<String> visitedCategories = new HashSet<>();
+        boolean completed = streamSnapshot(new SnapshotHandler() {
+            // Articles de la catégorie courante par nom normalisé, fusionnés avant d'être transmis (MERGE)
+            private final Map<String, GroceryItem> categoryItems = new LinkedHashMap<>();
+
+            @Override
+            public boolean acceptsCategory(String category) {
+                return criteria.matchesCategory(category);
+            }
+
+            @Override
+            public boolean item(GroceryItem item) throws IOException {
+                if (!criteria.matchesName(item.name()) || removedNames.contains(GroceryList.normalize(item.name()))) {
+                    return true;
+                }
+                if (addPolicy == AddPolicy.MERGE) {
+                    categoryItems.merge(GroceryList.normalize(item.name()), item,
+                            (first, duplicate) -> first.withQuantity(first.quantity() + duplicate.quantity()));
+                    return true;
+                }
+                return visitor.visit(item);
+            }
+
+            @Override
+            public boolean endCategory(String category) throws IOException {
+                List<GroceryItem> merged = new ArrayList<>(categoryItems.values());
+                categoryItems.clear();
+                for (GroceryItem item : merged) {
+                    // Les quantités ajoutées par le journal rejoignent l'article du snapshot
+                    for (GroceryItem added : logAdditions.take(item.name(), category)) {
+                        item = item.withQuantity(item.quantity() + added.quantity());
+                    }
+                    if (!visitor.visit(item)) {
+                        return false;
+                    }
+                }
+                // Les ajouts du journal suivent les articles de leur catégorie
+                visitedCategories.add(category);
+                return visitAll(logAdditions.itemsOf(category), criteria, visitor);
+            }
+        });
+
+        if (completed) {
+            for (String category : logAdditions.categoryNames()) {
+                if (!visitedCategories.contains(category) && criteria.matchesCategory(category)
+                        && !visitAll(logAdditions.itemsOf(category), criteria, visitor)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Path> getStorageFiles() {
+        return List.of(Paths.get(fileName), log.getPath());
+    }
+
+    /**
+     * Réécrit le snapshot avec l'état courant puis vide le journal
+     */
+    public void compact() throws IOException {
+        GroceryList state = loadState();
+
+        // 1. nouveau snapshot complet dans un fichier temporaire, forcé sur le disque avec son entrée de répertoire
+        // quelle que soit la politique : c'est la seule copie de l'état une fois le journal supprimé
+        writeSnapshot(state, compactionFile);
+        DurableFiles.force(compactionFile);
+        DurableFiles.forceDirectory(compactionFile.toAbsolutePath().getParent());
+        // 2. le journal n'est supprimé qu'une fois le snapshot temporaire sur disque
+        log.delete();
+        // 3. le snapshot temporaire remplace l'ancien par un renommage atomique (son contenu est déjà forcé)
+        DurableFiles.replace(compactionFile, Paths.get(fileName), false);
+        if (durability.shouldSync()) {
+            DurableFiles.forceDirectory(compactionFile.toAbsolutePath().getParent());
+        } else {
+            periodicSync.defer(Paths.get(fileName));
+        }
+    }
+
+    /**
+     * Synchronise les écritures encore en attente (politique interval)
+     */
+    @Override
+    public void close() throws IOException {
+        periodicSync.close();
+    }
+
+    private void append(GroceryOperation operation) throws IOException {
+        append(List.of(operation));
     }
 
-    private Map<String, List<String>> getAllItemsInternal() throws IOException {
+    private void append(List<GroceryOperation> operations) throws IOException {
+        recoverInterruptedCompaction();
+        log.append(operations);
+
+        if (log.size() >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    private GroceryList loadState() throws IOException {
+        recoverInterruptedCompaction();
+        GroceryList state = readSnapshot();
+
+        for (GroceryOperation operation : log.readAll()) {
+            apply(state, operation);
+        }
+
+        return state;
+    }
+
+    private GroceryList readSnapshot() throws IOException {
+        GroceryList state = new GroceryList(addPolicy);
+        streamSnapshot(new SnapshotHandler() {
+            @Override
+            public boolean acceptsCategory(String category) {
+                return true;
+            }
+
+            @Override
+            public boolean item(GroceryItem item) {
+                state.add(item);
+                return true;
+            }
+
+            @Override
+            public boolean endCategory(String category) {
+                return true;
+            }
+        });
+        return state;
+    }
+
+    /**
+     * Lit le snapshot article par article
+     *
+     * @return false si le parcours a été interrompu par le handler
+     */
+    private boolean streamSnapshot(SnapshotHandler handler) throws IOException {
         Path filePath = Paths.get(fileName);
-        Map<String, List<String>> categoryMap = new HashMap<>();
-
-        if (Files.exists(filePath)) {
-            try {
-                String fileContent = Files.readString(filePath);
-                categoryMap = OBJECT_MAPPER.readValue(fileContent, new TypeReference<>() {});
-            } catch(Exception e) {
-                // En cas d'erreur de parsing, on réinitialise la map
-                categoryMap = new HashMap<>();
+        if (!Files.exists(filePath)) {
+            return true;
+        }
+
+        try (JsonParser parser = JSON_FACTORY.createParser(Files.newInputStream(filePath))) {
+            // Un fichier vide est une liste vide
+            if (parser.nextToken() == null) {
+                return true;
+            }
+            expect(parser, JsonToken.START_OBJECT);
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String category = parser.currentName();
+                parser.nextToken();
+                expect(parser, JsonToken.START_ARRAY);
+                if (!handler.acceptsCategory(category)) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (!handler.item(readItem(parser, category))) {
+                        return false;
+                    }
+                }
+                if (!handler.endCategory(category)) {
+                    return false;
+                }
+            }
+            expect(parser, JsonToken.END_OBJECT);
+        } catch (JsonProcessingException e) {
+            // Un fichier illisible n'est jamais pris pour une liste vide : la prochaine écriture l'écraserait
+            throw new IOException("Corrupted grocery file " + fileName + ": " + e.getOriginalMessage(), e);
+        }
+        return true;
+    }
+
+    private static GroceryItem readItem(JsonParser parser, String category) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return GroceryItem.parseLegacy(parser.getText(), category);
+        }
+        expect(parser, JsonToken.START_OBJECT);
+
+        String name = "";
+        int quantity = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("name".equals(field)) {
+                name = parser.getValueAsString("");
+            } else if ("quantity".equals(field)) {
+                quantity = parser.getValueAsInt();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new GroceryItem(name, quantity, category);
+    }
+
+    private static void expect(JsonParser parser, JsonToken expected) throws JsonParseException {
+        if (parser.currentToken() != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + parser.currentToken());
+        }
+    }
+
+    private static void writeSnapshot(GroceryList state, Path target) throws IOException {
+        try (OutputStream output = Files.newOutputStream(target);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(output, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            String currentCategory = null;
+            // Les articles arrivent regroupés par catégorie
+            for (GroceryItem item : state) {
+                if (!Objects.equals(item.category(), currentCategory)) {
+                    if (currentCategory != null) {
+                        generator.writeEndArray();
+                    }
+                    currentCategory = item.category();
+                    generator.writeArrayFieldStart(currentCategory);
+                }
+                generator.writeStartObject();
+                generator.writeStringField("name", item.name());
+                generator.writeNumberField("quantity", item.quantity());
+                generator.writeEndObject();
+            }
+            if (currentCategory != null) {
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private static boolean visitAll(List<GroceryItem> items, ItemCriteria criteria, GroceryItemVisitor visitor)
+            throws IOException {
+        for (GroceryItem item : items) {
+            if (criteria.matchesName(item.name()) && !visitor.visit(item)) {
+                return false;
             }
         }
+        return true;
+    }
+
+    private void recoverInterruptedCompaction() throws IOException {
+        if (!Files.exists(compactionFile)) {
+            return;
+        }
+
+        // Plusieurs lecteurs (verrou partagé) peuvent faire la reprise en même temps : le premier l'emporte
+        try {
+            if (log.exists()) {
+                // Arrêt pendant l'écriture du snapshot temporaire : le journal fait foi
+                Files.deleteIfExists(compactionFile);
+            } else {
+                // Arrêt après la suppression du journal : le snapshot temporaire est complet
+                boolean sync = durability.shouldSync();
+                DurableFiles.replace(compactionFile, Paths.get(fileName), sync);
+                if (!sync) {
+                    periodicSync.defer(Paths.get(fileName));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // Déjà repris par un autre lecteur
+        }
+    }
+
+    private static void apply(GroceryList state, GroceryOperation operation) {
+        switch (operation.type()) {
+            case ADD:
+                state.add(operation.item());
+                break;
+
+            case REMOVE:
+                // Suppression via l'index des noms, sans parcourir les autres articles
+                state.remove(operation.itemName());
+                break;
+        }
+    }
+
+    private interface SnapshotHandler {
+        boolean acceptsCategory(String category);
+
+        boolean item(GroceryItem item) throws IOException;
 
-        return categoryMap;
+        boolean endCategory(String category) throws IOException;
     }
-}
\ No newline at end of file
+}
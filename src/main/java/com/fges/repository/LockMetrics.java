@@ -0,0 +1,55 @@
+package com.fges.repository;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Temps passé à attendre les verrous du fichier, pour repérer la contention entre processus
+ */
+public class LockMetrics {
+    private final LongAdder sharedAcquisitions = new LongAdder();
+    private final LongAdder exclusiveAcquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    void recordAcquisition(boolean shared, long waitNanos) {
+        (shared ? sharedAcquisitions : exclusiveAcquisitions).increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    void recordTimeout() {
+        timeouts.increment();
+    }
+
+    public long getSharedAcquisitions() {
+        return sharedAcquisitions.sum();
+    }
+
+    public long getExclusiveAcquisitions() {
+        return exclusiveAcquisitions.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum());
+    }
+
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "shared=" + getSharedAcquisitions()
+                + " exclusive=" + getExclusiveAcquisitions()
+                + " timeouts=" + getTimeouts()
+                + " totalWaitMs=" + getTotalWaitMillis()
+                + " maxWaitMs=" + getMaxWaitMillis();
+    }
+}
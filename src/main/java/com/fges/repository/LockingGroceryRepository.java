@@ -0,0 +1,167 @@
+package com.fges.repository;
+
+import com.fges.metrics.Metrics;
+import com.fges.model.GroceryItem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Décorateur qui coordonne les accès au fichier entre processus (plusieurs commandes lancées en parallèle
+ * sur la même source) : verrou partagé pour les requêtes, exclusif pour les commandes.
+ * Le verrou porte sur "fichier.lock", qui n'est jamais supprimé pour que tous les processus verrouillent le même fichier.
+ * Avec un registre de métriques, l'attente et la durée de détention des verrous y sont enregistrées
+ * (lock.shared.wait, lock.shared.hold, lock.exclusive.wait, lock.exclusive.hold, lock.timeouts).
+ */
+public class LockingGroceryRepository implements GroceryRepository, Closeable {
+    public static final long DEFAULT_TIMEOUT_MILLIS = 10_000;
+
+    private final GroceryRepository delegate;
+    private final RepositoryLock lock;
+    private final long timeoutMillis;
+    private final Metrics metrics;
+
+    public LockingGroceryRepository(GroceryRepository delegate, String fileName) {
+        this(delegate, fileName, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param timeoutMillis attente maximale d'un verrou avant l'échec de l'opération
+     */
+    public LockingGroceryRepository(GroceryRepository delegate, String fileName, long timeoutMillis) {
+        this(delegate, fileName, timeoutMillis, null);
+    }
+
+    /**
+     * @param metrics registre qui reçoit les temps d'attente et de détention des verrous, null pour ne rien mesurer
+     */
+    public LockingGroceryRepository(GroceryRepository delegate, String fileName, long timeoutMillis, Metrics metrics) {
+        this.delegate = delegate;
+        this.lock = RepositoryLock.forPath(Paths.get(fileName + ".lock"));
+        this.timeoutMillis = timeoutMillis;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void addItem(GroceryItem item) throws IOException {
+        exclusive(() -> {
+            delegate.addItem(item);
+            return null;
+        });
+    }
+
+    @Override
+    public void removeItem(String itemName) throws IOException {
+        exclusive(() -> {
+            delegate.removeItem(itemName);
+            return null;
+        });
+    }
+
+    @Override
+    public void applyAll(List<GroceryOperation> operations) throws IOException {
+        exclusive(() -> {
+            delegate.applyAll(operations);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteFile() throws IOException {
+        exclusive(() -> {
+            delegate.deleteFile();
+            return null;
+        });
+    }
+
+    @Override
+    public Map<String, List<GroceryItem>> getAllItems() throws IOException {
+        return shared(delegate::getAllItems);
+    }
+
+    @Override
+    public boolean fileExists() throws IOException {
+        return shared(delegate::fileExists);
+    }
+
+    @Override
+    public List<GroceryItem> findItems(String itemName) throws IOException {
+        return shared(() -> delegate.findItems(itemName));
+    }
+
+    @Override
+    public void forEachItem(GroceryItemVisitor visitor) throws IOException {
+        shared(() -> {
+            delegate.forEachItem(visitor);
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachItem(ItemCriteria criteria, GroceryItemVisitor visitor) throws IOException {
+        shared(() -> {
+            delegate.forEachItem(criteria, visitor);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Path> getStorageFiles() {
+        return delegate.getStorageFiles();
+    }
+
+    /**
+     * Mesures du verrou, partagées par tous les repositories de la JVM qui utilisent le même fichier
+     */
+    public LockMetrics getMetrics() {
+        return lock.getMetrics();
+    }
+
+    private <T> T shared(RepositoryLock.LockedAction<T> action) throws IOException {
+        return locked(true, action);
+    }
+
+    private <T> T exclusive(RepositoryLock.LockedAction<T> action) throws IOException {
+        return locked(false, action);
+    }
+
+    private <T> T locked(boolean shared, RepositoryLock.LockedAction<T> action) throws IOException {
+        if (metrics == null) {
+            return shared ? lock.withShared(timeoutMillis, action) : lock.withExclusive(timeoutMillis, action);
+        }
+
+        // Attente jusqu'au début de l'action, détention pendant sa durée
+        String name = shared ? "lock.shared" : "lock.exclusive";
+        long start = System.nanoTime();
+        boolean[] acquired = new boolean[1];
+        RepositoryLock.LockedAction<T> measured = () -> {
+            acquired[0] = true;
+            metrics.recordTime(name + ".wait", start);
+            long holdStart = System.nanoTime();
+            try {
+                return action.run();
+            } finally {
+                metrics.recordTime(name + ".hold", holdStart);
+            }
+        };
+        try {
+            return shared ? lock.withShared(timeoutMillis, measured) : lock.withExclusive(timeoutMillis, measured);
+        } catch (IOException e) {
+            if (!acquired[0]) {
+                metrics.increment("lock.timeouts");
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.fges.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fichier projeté en mémoire dont la taille double lorsqu'il faut plus de place
+ */
+final class MappedFile implements Closeable {
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    private MappedFile(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static MappedFile open(Path path, long initialSize) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = Math.max(channel.size(), initialSize);
+            return new MappedFile(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Agrandit la projection (et le fichier) pour contenir au moins required octets
+     */
+    void ensureCapacity(long required) throws IOException {
+        long size = buffer.capacity();
+        if (required <= size) {
+            return;
+        }
+        while (size < required) {
+            size *= 2;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Binary grocery file is too large");
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Reprend la projection si un autre processus a agrandi le fichier
+     */
+    void refresh() throws IOException {
+        long size = channel.size();
+        if (size > buffer.capacity()) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * Écrit sur le disque les pages modifiées de la projection
+     */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // La projection est libérée par le ramasse-miettes une fois le buffer inaccessible
+        buffer = null;
+        channel.close();
+    }
+}
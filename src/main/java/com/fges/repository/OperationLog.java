@@ -0,0 +1,185 @@
+package com.fges.repository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Journal d'opérations en ajout seul (une opération JSON par ligne) placé à côté du snapshot.
+ * Les lignes sont lues et écrites avec l'API de flux de Jackson : une commande ponctuelle
+ * n'a pas à payer l'initialisation de l'ObjectMapper.
+ */
+public class OperationLog {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private final Path path;
+    private final DurabilityPolicy durability;
+    private final PeriodicSync periodicSync;
+
+    public OperationLog(Path path) {
+        this(path, DurabilityPolicy.ALWAYS);
+    }
+
+    public OperationLog(Path path, DurabilityPolicy durability) {
+        this(path, durability, new PeriodicSync(durability));
+    }
+
+    /**
+     * @param periodicSync synchronisation différée du repository propriétaire du journal
+     */
+    OperationLog(Path path, DurabilityPolicy durability, PeriodicSync periodicSync) {
+        this.path = path;
+        this.durability = durability;
+        this.periodicSync = periodicSync;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    public long size() throws IOException {
+        return Files.exists(path) ? Files.size(path) : 0;
+    }
+
+    public void append(List<GroceryOperation> operations) throws IOException {
+        // Une seule écriture séquentielle en fin de fichier, quel que soit le nombre d'opérations
+        StringWriter lines = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(lines)) {
+            for (GroceryOperation operation : operations) {
+                write(generator, operation);
+                generator.flush();
+                lines.write('\n');
+            }
+        }
+        boolean created = !Files.exists(path);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Une dernière ligne tronquée (arrêt pendant un ajout) est effacée : la suivante ne s'y collera pas
+            long end = completeLinesEnd(channel);
+            if (end < channel.size()) {
+                channel.truncate(end);
+            }
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(lines.toString());
+            while (bytes.hasRemaining()) {
+                end += channel.write(bytes, end);
+            }
+            if (durability.shouldSync()) {
+                channel.force(false);
+                if (created) {
+                    DurableFiles.forceDirectory(path.toAbsolutePath().getParent());
+                }
+            } else {
+                periodicSync.defer(path);
+            }
+        }
+    }
+
+    public List<GroceryOperation> readAll() throws IOException {
+        List<GroceryOperation> operations = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return operations;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    operations.add(read(line));
+                } catch (JsonProcessingException e) {
+                    // Ligne tronquée (arrêt pendant un ajout) : les suivantes restent lisibles
+                }
+            }
+        }
+        return operations;
+    }
+
+    /**
+     * Fin de la dernière ligne complète : juste après le dernier '\n', 0 s'il n'y en a pas
+     */
+    private static long completeLinesEnd(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long end = channel.size();
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    public void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    // Même forme que la sérialisation du record : {"type":"ADD","itemName":"Milk","quantity":2,"category":"default"}
+    private static void write(JsonGenerator generator, GroceryOperation operation) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", operation.type().name());
+        generator.writeStringField("itemName", operation.itemName());
+        generator.writeNumberField("quantity", operation.quantity());
+        generator.writeStringField("category", operation.category());
+        generator.writeEndObject();
+    }
+
+    private static GroceryOperation read(String line) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an operation object");
+            }
+
+            GroceryOperation.Type type = null;
+            String itemName = null;
+            int quantity = 0;
+            String category = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "type" -> type = GroceryOperation.Type.valueOf(parser.getText());
+                    case "itemName" -> itemName = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                    case "quantity" -> quantity = parser.getValueAsInt();
+                    case "category" -> category = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                    default -> parser.skipChildren();
+                }
+            }
+            // Ligne tronquée : l'objet n'est pas refermé
+            if (parser.currentToken() != JsonToken.END_OBJECT || type == null) {
+                throw new JsonParseException(parser, "Incomplete operation");
+            }
+            return new GroceryOperation(type, itemName, quantity, category);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(null, "Unknown operation type: " + e.getMessage());
+        }
+    }
+}
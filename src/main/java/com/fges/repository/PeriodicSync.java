@@ -0,0 +1,134 @@
+package com.fges.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synchronisations différées de la politique interval(n) : un fichier écrit sans être synchronisé
+ * est forcé sur le disque, avec son répertoire, par une tâche planifiée au plus n ms plus tard,
+ * même si aucune autre écriture ne suit. Chaque repository a la sienne et l'arrête à sa fermeture
+ * (après une dernière synchronisation) ; une écriture suivante la relance.
+ */
+final class PeriodicSync implements Closeable {
+    private final DurabilityPolicy durability;
+    // Dans l'ordre d'écriture : les fichiers référencés sont forcés avant ceux qui les référencent
+    private final Set<Path> dirtyFiles = new LinkedHashSet<>();
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> pending;
+    private IOException failure;
+
+    PeriodicSync(DurabilityPolicy durability) {
+        this.durability = durability;
+    }
+
+    /**
+     * Note un fichier écrit sans synchronisation ; sans effet si la politique n'est pas un intervalle
+     *
+     * @throws IOException l'échec d'une synchronisation planifiée précédente
+     */
+    synchronized void defer(Path file) throws IOException {
+        rethrowFailure();
+        if (!durability.isInterval()) {
+            return;
+        }
+        dirtyFiles.add(file);
+        if (pending == null) {
+            if (scheduler == null) {
+                scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "grocery-periodic-sync");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            pending = scheduler.schedule(this::scheduledFlush, durability.intervalMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Force tout de suite les fichiers en attente puis arrête la tâche planifiée
+     */
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService stopped;
+        synchronized (this) {
+            if (pending != null) {
+                pending.cancel(false);
+                pending = null;
+            }
+            stopped = scheduler;
+            scheduler = null;
+        }
+        if (stopped != null) {
+            stopped.shutdown();
+        }
+        flush();
+        synchronized (this) {
+            rethrowFailure();
+        }
+    }
+
+    private void scheduledFlush() {
+        synchronized (this) {
+            pending = null;
+        }
+        try {
+            flush();
+        } catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        List<Path> files;
+        synchronized (this) {
+            if (dirtyFiles.isEmpty()) {
+                return;
+            }
+            files = new ArrayList<>(dirtyFiles);
+            dirtyFiles.clear();
+        }
+        // Couvre toutes les écritures faites avant ce relevé
+        long start = System.currentTimeMillis();
+
+        Set<Path> directories = new LinkedHashSet<>();
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            try {
+                DurableFiles.force(file);
+            } catch (NoSuchFileException e) {
+                // Supprimé ou renommé depuis : seule l'entrée du répertoire reste à synchroniser
+            } catch (IOException e) {
+                // Les fichiers non synchronisés le seront par la prochaine tentative
+                synchronized (this) {
+                    dirtyFiles.addAll(files.subList(i, files.size()));
+                }
+                throw e;
+            }
+            directories.add(file.toAbsolutePath().getParent());
+        }
+        for (Path directory : directories) {
+            DurableFiles.forceDirectory(directory);
+        }
+        durability.synced(start);
+    }
+
+    private void rethrowFailure() throws IOException {
+        if (failure != null) {
+            IOException e = failure;
+            failure = null;
+            throw new IOException("Deferred sync failed: " + e.getMessage(), e);
+        }
+    }
+}
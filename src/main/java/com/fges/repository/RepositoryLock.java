@@ -0,0 +1,162 @@
+package com.fges.repository;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Verrou lecteurs/écrivain partagé entre les threads de la JVM et entre les processus.
+ * Les threads se coordonnent par un ReentrantReadWriteLock ; un seul verrou de fichier (FileChannel.lock)
+ * est pris pour la JVM, partagé tant qu'au moins un lecteur est actif, exclusif pour un écrivain.
+ * Le fichier de verrou est distinct des données, qui peuvent être remplacées par renommage.
+ * Les verrous de fichier appartenant à la JVM entière, il existe une seule instance par fichier (forPath).
+ */
+final class RepositoryLock {
+    private static final long MAX_BACKOFF_MILLIS = 50;
+    private static final Map<Path, RepositoryLock> LOCKS = new ConcurrentHashMap<>();
+
+    private final Path lockPath;
+    private final LockMetrics metrics = new LockMetrics();
+    private final ReentrantReadWriteLock threadLock = new ReentrantReadWriteLock(true);
+
+    // Protégés par this
+    private FileChannel channel;
+    private FileLock fileLock;
+    private int sharedHolders;
+
+    interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    private RepositoryLock(Path lockPath) {
+        this.lockPath = lockPath;
+    }
+
+    static RepositoryLock forPath(Path lockPath) {
+        return LOCKS.computeIfAbsent(lockPath.toAbsolutePath().normalize(), RepositoryLock::new);
+    }
+
+    LockMetrics getMetrics() {
+        return metrics;
+    }
+
+    <T> T withShared(long timeoutMillis, LockedAction<T> action) throws IOException {
+        if (threadLock.isWriteLockedByCurrentThread()) {
+            // Lecture pendant une écriture du même thread : le verrou exclusif suffit
+            return action.run();
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Lock lock = threadLock.readLock();
+        acquireThreadLock(lock, timeoutMillis);
+        try {
+            synchronized (this) {
+                if (sharedHolders == 0) {
+                    acquireFileLock(true, deadline, timeoutMillis);
+                }
+                sharedHolders++;
+            }
+            metrics.recordAcquisition(true, System.nanoTime() - start);
+            try {
+                return action.run();
+            } finally {
+                synchronized (this) {
+                    if (--sharedHolders == 0) {
+                        releaseFileLock();
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    <T> T withExclusive(long timeoutMillis, LockedAction<T> action) throws IOException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Lock lock = threadLock.writeLock();
+        acquireThreadLock(lock, timeoutMillis);
+        try {
+            // Écriture imbriquée dans une écriture du même thread : le verrou de fichier est déjà pris
+            boolean reentrant = threadLock.getWriteHoldCount() > 1;
+            if (!reentrant) {
+                synchronized (this) {
+                    acquireFileLock(false, deadline, timeoutMillis);
+                }
+            }
+            metrics.recordAcquisition(false, System.nanoTime() - start);
+            try {
+                return action.run();
+            } finally {
+                if (!reentrant) {
+                    synchronized (this) {
+                        releaseFileLock();
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquireThreadLock(Lock lock, long timeoutMillis) throws IOException {
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw timeout(timeoutMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for lock on " + lockPath, e);
+        }
+    }
+
+    // Appelé avec le moniteur
+    private void acquireFileLock(boolean shared, long deadline, long timeoutMillis) throws IOException {
+        // Le canal reste ouvert pour la durée de la JVM : le fermer libérerait tous ses verrous
+        if (channel == null) {
+            channel = FileChannel.open(lockPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        // FileChannel.lock n'a pas de délai : on réessaie tryLock avec une attente croissante
+        long backoff = 1;
+        while (true) {
+            FileLock lock = channel.tryLock(0, Long.MAX_VALUE, shared);
+            if (lock != null) {
+                fileLock = lock;
+                return;
+            }
+            if (System.nanoTime() >= deadline) {
+                throw timeout(timeoutMillis);
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for lock on " + lockPath, e);
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    // Appelé avec le moniteur
+    private void releaseFileLock() throws IOException {
+        if (fileLock != null) {
+            fileLock.release();
+            fileLock = null;
+        }
+    }
+
+    private IOException timeout(long timeoutMillis) {
+        metrics.recordTimeout();
+        return new IOException("Timed out after " + timeoutMillis + " ms waiting for lock on " + lockPath);
+    }
+}
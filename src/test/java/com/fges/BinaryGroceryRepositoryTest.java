@@ -0,0 +1,148 @@
+package com.fges;
+
+import com.fges.model.GroceryItem;
+import com.fges.repository.BinaryGroceryRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryGroceryRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_read_items_written_by_another_instance() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.bin").toString();
+        try (BinaryGroceryRepository writer = new BinaryGroceryRepository(file)) {
+            writer.addItem(new GroceryItem("Milk", 2, "dairy"));
+            writer.addItem(new GroceryItem("Bread", 1, "bakery"));
+            writer.addItem(new GroceryItem("Eggs", 12, "dairy"));
+        }
+
+        // Act
+        try (BinaryGroceryRepository reader = new BinaryGroceryRepository(file)) {
+            var items = reader.getAllItems();
+
+            // Assert
+            assertThat(items.keySet()).containsExactly("dairy", "bakery");
+            assertThat(items.get("dairy")).containsExactly(
+                    new GroceryItem("Milk", 2, "dairy"),
+                    new GroceryItem("Eggs", 12, "dairy"));
+            assertThat(reader.findItems("MILK")).containsExactly(new GroceryItem("Milk", 2, "dairy"));
+        }
+    }
+
+    @Test
+    void should_reuse_removed_slots_and_intern_strings() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.bin");
+        try (BinaryGroceryRepository repository = new BinaryGroceryRepository(file.toString())) {
+            repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+            repository.addItem(new GroceryItem("Bread", 1, "bakery"));
+            long recordsSize = Files.size(file);
+            long stringsSize = Files.size(tempDir.resolve("groceries.bin.strings"));
+
+            // Act
+            repository.removeItem("milk");
+            repository.addItem(new GroceryItem("Milk", 3, "dairy"));
+
+            // Assert
+            assertThat(Files.size(file)).isEqualTo(recordsSize);
+            assertThat(Files.size(tempDir.resolve("groceries.bin.strings"))).isEqualTo(stringsSize);
+            assertThat(repository.findItems("milk")).containsExactly(new GroceryItem("Milk", 3, "dairy"));
+            assertThat(repository.getAllItems().get("bakery")).containsExactly(new GroceryItem("Bread", 1, "bakery"));
+        }
+    }
+
+    @Test
+    void should_increment_existing_record_in_place() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.bin");
+        try (BinaryGroceryRepository repository = new BinaryGroceryRepository(file.toString());
+             BinaryGroceryRepository other = new BinaryGroceryRepository(file.toString())) {
+            repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+            repository.addItem(new GroceryItem("Bread", 1, "bakery"));
+            long recordsSize = Files.size(file);
+
+            // Act
+            repository.addItem(new GroceryItem("milk", 3, "dairy"));
+            other.addItem(new GroceryItem("Milk", 1, "dairy"));
+            repository.removeItem("bread");
+            repository.addItem(new GroceryItem("Bread", 4, "bakery"));
+
+            // Assert
+            assertThat(Files.size(file)).isEqualTo(recordsSize);
+            assertThat(repository.findItems("milk")).containsExactly(new GroceryItem("Milk", 6, "dairy"));
+            assertThat(other.findItems("bread")).containsExactly(new GroceryItem("Bread", 4, "bakery"));
+        }
+    }
+
+    @Test
+    void should_group_interleaved_categories_and_remove_an_item_from_all_of_them() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.bin");
+        try (BinaryGroceryRepository repository = new BinaryGroceryRepository(file.toString());
+             BinaryGroceryRepository other = new BinaryGroceryRepository(file.toString())) {
+            repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+            repository.addItem(new GroceryItem("Bread", 1, "bakery"));
+            repository.addItem(new GroceryItem("Eggs", 12, "dairy"));
+            repository.addItem(new GroceryItem("Milk", 1, "drinks"));
+            repository.addItem(new GroceryItem("Cake", 3, "bakery"));
+            assertThat(other.findItems("milk")).containsExactly(
+                    new GroceryItem("Milk", 2, "dairy"),
+                    new GroceryItem("Milk", 1, "drinks"));
+
+            // Act
+            other.removeItem("MILK");
+
+            // Assert
+            assertThat(repository.findItems("milk")).isEmpty();
+            var items = repository.getAllItems();
+            assertThat(items.keySet()).containsExactly("bakery", "dairy");
+            assertThat(items.get("bakery")).containsExactly(
+                    new GroceryItem("Bread", 1, "bakery"),
+                    new GroceryItem("Cake", 3, "bakery"));
+            assertThat(items.get("dairy")).containsExactly(new GroceryItem("Eggs", 12, "dairy"));
+        }
+    }
+
+    @Test
+    void should_grow_mapping_beyond_initial_capacity() throws Exception {
+        // Arrange
+        try (BinaryGroceryRepository repository = new BinaryGroceryRepository(tempDir.resolve("groceries.bin").toString())) {
+            // Act
+            for (int i = 0; i < 5000; i++) {
+                repository.addItem(new GroceryItem("item-" + i, i, "cat-" + i % 3));
+            }
+
+            // Assert
+            assertThat(repository.findItems("item-4999")).containsExactly(new GroceryItem("item-4999", 4999, "cat-1"));
+            assertThat(repository.getAllItems().get("cat-0")).hasSize(1667);
+        }
+    }
+
+    @Test
+    void should_delete_both_files() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.bin");
+        BinaryGroceryRepository repository = new BinaryGroceryRepository(file.toString());
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+
+        // Act
+        repository.deleteFile();
+
+        // Assert
+        assertThat(file).doesNotExist();
+        assertThat(tempDir.resolve("groceries.bin.strings")).doesNotExist();
+        assertThat(repository.getAllItems()).isEmpty();
+        assertThatThrownBy(repository::deleteFile).hasMessageContaining("File not found");
+    }
+}
@@ -0,0 +1,54 @@
+package com.fges;
+
+import com.fges.model.GroceryItem;
+import com.fges.repository.CachedGroceryRepository;
+import com.fges.repository.JsonGroceryRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CachedGroceryRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_serve_unchanged_list_from_memory() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.json").toString();
+        JsonGroceryRepository delegate = spy(new JsonGroceryRepository(file));
+        CachedGroceryRepository repository = new CachedGroceryRepository(delegate);
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+
+        // Act
+        repository.getAllItems();
+        repository.getAllItems();
+
+        // Assert
+        verify(delegate, times(1)).getAllItems();
+    }
+
+    @Test
+    void should_reload_when_file_is_changed_by_another_writer() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.json").toString();
+        CachedGroceryRepository repository = new CachedGroceryRepository(new JsonGroceryRepository(file));
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+        repository.getAllItems();
+
+        // Act
+        new JsonGroceryRepository(file).addItem(new GroceryItem("Eggs", 12, "dairy"));
+
+        // Assert
+        assertThat(repository.getAllItems().get("dairy")).containsExactly(
+                new GroceryItem("Milk", 2, "dairy"),
+                new GroceryItem("Eggs", 12, "dairy"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.fges;
+
+import com.fges.commands.RemoveItemCommand;
+import com.fges.core.CommandBus;
+import com.fges.core.EventBus;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CommandBusTest {
+
+    @Test
+    void should_dispatch_concurrently_and_publish_one_event_per_command() throws Exception {
+        // Arrange
+        EventBus eventBus = new EventBus();
+        CommandBus commandBus = new CommandBus(eventBus);
+        AtomicInteger handled = new AtomicInteger();
+        AtomicInteger published = new AtomicInteger();
+        commandBus.register(RemoveItemCommand.class, command -> {
+            handled.incrementAndGet();
+            return 0;
+        });
+        eventBus.subscribe("RemoveItemEvent", event -> published.incrementAndGet());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            futures.add(executor.submit(() -> commandBus.dispatch(new RemoveItemCommand("milk"))));
+        }
+        for (Future<Integer> future : futures) {
+            assertThat(future.get()).isZero();
+        }
+        executor.shutdown();
+
+        // Assert
+        assertThat(handled.get()).isEqualTo(1000);
+        assertThat(published.get()).isEqualTo(1000);
+    }
+
+    @Test
+    void should_keep_registries_separate_between_buses() {
+        // Arrange
+        CommandBus registered = new CommandBus(new EventBus());
+        registered.register(RemoveItemCommand.class, command -> 0);
+        CommandBus empty = new CommandBus(new EventBus());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> empty.dispatch(new RemoveItemCommand("milk")));
+    }
+
+    @Test
+    void should_create_lazy_handler_once_on_first_dispatch() throws Exception {
+        // Arrange
+        CommandBus commandBus = new CommandBus(new EventBus());
+        AtomicInteger created = new AtomicInteger();
+        commandBus.registerLazy(RemoveItemCommand.class, () -> {
+            created.incrementAndGet();
+            return command -> 0;
+        });
+        int createdBeforeDispatch = created.get();
+
+        // Act
+        commandBus.dispatch(new RemoveItemCommand("milk"));
+        commandBus.dispatch(new RemoveItemCommand("bread"));
+
+        // Assert
+        assertThat(createdBeforeDispatch).isZero();
+        assertThat(created.get()).isEqualTo(1);
+    }
+}
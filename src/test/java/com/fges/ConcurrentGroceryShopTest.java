@@ -0,0 +1,66 @@
+package com.fges;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentGroceryShopTest {
+
+    @Test
+    void should_keep_every_item_added_concurrently() throws Exception {
+        // Arrange
+        ConcurrentGroceryShop shop = new ConcurrentGroceryShop();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            String name = "item" + i;
+            futures.add(executor.submit(() -> {
+                shop.addGroceryItem(name, 1, "default");
+                shop.getGroceries();
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        assertThat(shop.getGroceries()).hasSize(1000);
+    }
+
+    @Test
+    void should_share_snapshot_between_reads_without_mutation() {
+        // Arrange
+        ConcurrentGroceryShop shop = new ConcurrentGroceryShop();
+        shop.addGroceryItem("Milk", 2, "dairy");
+
+        // Act
+        var first = shop.getGroceries();
+        var second = shop.getGroceries();
+        shop.removeGroceryItem("milk");
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        assertThat(shop.getGroceries()).isEmpty();
+    }
+
+    @Test
+    void should_put_items_without_category_in_default() {
+        // Arrange
+        ConcurrentGroceryShop shop = new ConcurrentGroceryShop();
+
+        // Act
+        shop.addGroceryItem("Milk", 2, null);
+
+        // Assert
+        assertThat(shop.getGroceries()).extracting(item -> item.category()).containsExactly("default");
+    }
+}
@@ -0,0 +1,218 @@
+package com.fges;
+
+import com.fges.model.GroceryItem;
+import com.fges.repository.CsvGroceryRepository;
+import com.fges.repository.GroceryOperation;
+import com.fges.repository.ItemCriteria;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvGroceryRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_append_rows_after_header() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.csv");
+        CsvGroceryRepository repository = new CsvGroceryRepository(file.toString());
+
+        // Act
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+        repository.addItem(new GroceryItem("Bread", 1, "bakery"));
+
+        // Assert
+        assertThat(Files.readAllLines(file)).containsExactly(
+                "article,nombre,categorie",
+                "Milk,2,dairy",
+                "Bread,1,bakery");
+    }
+
+    @Test
+    void should_quote_fields_containing_separators() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.csv");
+        CsvGroceryRepository repository = new CsvGroceryRepository(file.toString());
+
+        // Act
+        repository.addItem(new GroceryItem("Cheese, \"aged\"", 1, "dairy"));
+
+        // Assert
+        assertThat(Files.readString(file)).contains("\"Cheese, \"\"aged\"\"\",1,dairy");
+        assertThat(repository.findItems("cheese, \"AGED\"")).containsExactly(
+                new GroceryItem("Cheese, \"aged\"", 1, "dairy"));
+    }
+
+    @Test
+    void should_read_quoted_and_multiline_fields() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.csv");
+        Files.writeString(file, "article,nombre,categorie\r\n"
+                + " Milk , 2 ,dairy\r\n"
+                + "\"Two\nlines\",3,\"misc\"\r\n"
+                + "broken row\n");
+        CsvGroceryRepository repository = new CsvGroceryRepository(file.toString());
+
+        // Act
+        var items = repository.getAllItems();
+
+        // Assert
+        assertThat(items.get("dairy")).containsExactly(new GroceryItem("Milk", 2, "dairy"));
+        assertThat(items.get("misc")).containsExactly(new GroceryItem("Two\nlines", 3, "misc"));
+        assertThat(items).hasSize(2);
+    }
+
+    @Test
+    void should_remove_rows_ignoring_case() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.csv");
+        CsvGroceryRepository repository = new CsvGroceryRepository(file.toString());
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+        repository.addItem(new GroceryItem("Bread", 1, "bakery"));
+
+        // Act
+        repository.removeItem("MILK");
+
+        // Assert
+        assertThat(Files.readAllLines(file)).containsExactly("article,nombre,categorie", "Bread,1,bakery");
+        assertThat(tempDir.resolve("groceries.csv.tmp")).doesNotExist();
+    }
+
+    @Test
+    void should_apply_batch_with_one_rewrite_and_one_append() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.csv");
+        CsvGroceryRepository repository = new CsvGroceryRepository(file.toString());
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+
+        // Act
+        repository.applyAll(List.of(
+                GroceryOperation.add(new GroceryItem("Eggs", 12, "dairy")),
+                GroceryOperation.remove("milk"),
+                GroceryOperation.add(new GroceryItem("Apple", 3, "fruits")),
+                GroceryOperation.remove("apple")));
+
+        // Assert
+        assertThat(Files.readAllLines(file)).containsExactly("article,nombre,categorie", "Eggs,12,dairy");
+    }
+
+    @Test
+    void should_keep_reading_after_an_unclosed_quote() throws Exception {
+        // Arrange : ligne tronquée dans un champ entre guillemets, suivie de lignes ajoutées plus tard
+        Path file = tempDir.resolve("groceries.csv");
+        Files.writeString(file, "article,nombre,categorie\n"
+                + "Milk,2,dairy\n"
+                + "Cheese,1,\"da\n"
+                + "Bread,1,bakery\n"
+                + "Eggs,12,dairy\n");
+        CsvGroceryRepository repository = new CsvGroceryRepository(file.toString());
+
+        // Act
+        var items = repository.getAllItems();
+
+        // Assert
+        assertThat(items.get("dairy")).containsExactly(new GroceryItem("Milk", 2, "dairy"), new GroceryItem("Eggs", 12, "dairy"));
+        assertThat(items.get("bakery")).containsExactly(new GroceryItem("Bread", 1, "bakery"));
+    }
+
+    @Test
+    void should_keep_whitespace_inside_quoted_fields() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.csv");
+        Files.writeString(file, "article,nombre,categorie\nMilk , 2 ,\"dairy \" \n");
+        CsvGroceryRepository repository = new CsvGroceryRepository(file.toString());
+
+        // Act
+        repository.addItem(new GroceryItem("Bread", 1, "bakery"));
+        repository.removeItem("bread");
+
+        // Assert : la réécriture garde aussi les espaces
+        assertThat(repository.getAllItems()).containsOnlyKeys("dairy ");
+        assertThat(repository.getAllItems().get("dairy ")).containsExactly(new GroceryItem("Milk", 2, "dairy "));
+    }
+
+    @Test
+    void should_drop_a_torn_row_with_an_unclosed_quote_before_appending() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.csv");
+        CsvGroceryRepository repository = new CsvGroceryRepository(file.toString());
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+        Files.writeString(file, "\"Chee", StandardOpenOption.APPEND);
+
+        // Act
+        repository.addItem(new GroceryItem("Bread", 1, "bakery"));
+
+        // Assert
+        assertThat(Files.readAllLines(file)).containsExactly("article,nombre,categorie", "Milk,2,dairy", "Bread,1,bakery");
+    }
+
+    @Test
+    void should_stream_items_grouped_by_category_with_duplicates_merged() throws Exception {
+        // Arrange : catégories entrelacées et doublon d'un ancien fichier
+        Path file = tempDir.resolve("groceries.csv");
+        Files.writeString(file, "article,nombre,categorie\n"
+                + "Milk,2,dairy\n"
+                + "Bread,1,bakery\n"
+                + "milk,3,dairy\n"
+                + "Apple,4,fruits\n"
+                + "Eggs,12,dairy\n");
+        CsvGroceryRepository repository = new CsvGroceryRepository(file.toString());
+        List<GroceryItem> visited = new ArrayList<>();
+
+        // Act
+        repository.forEachItem(visited::add);
+
+        // Assert
+        assertThat(visited).containsExactly(
+                new GroceryItem("Milk", 5, "dairy"),
+                new GroceryItem("Eggs", 12, "dairy"),
+                new GroceryItem("Bread", 1, "bakery"),
+                new GroceryItem("Apple", 4, "fruits"));
+        assertThat(visited).containsExactlyElementsOf(
+                repository.getAllItems().values().stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void should_stop_streaming_when_visitor_returns_false() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.csv");
+        Files.writeString(file, "article,nombre,categorie\nMilk,2,dairy\nBread,1,bakery\nEggs,12,dairy\n");
+        CsvGroceryRepository repository = new CsvGroceryRepository(file.toString());
+        List<GroceryItem> visited = new ArrayList<>();
+
+        // Act
+        repository.forEachItem(new ItemCriteria("BAKERY", null), item -> {
+            visited.add(item);
+            return false;
+        });
+
+        // Assert
+        assertThat(visited).containsExactly(new GroceryItem("Bread", 1, "bakery"));
+    }
+
+    @Test
+    void should_delete_a_leftover_rewrite_file() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.csv");
+        CsvGroceryRepository repository = new CsvGroceryRepository(file.toString());
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+        Files.writeString(tempDir.resolve("groceries.csv.tmp"), "article,nombre,categorie\n");
+
+        // Act
+        repository.deleteFile();
+
+        // Assert
+        assertThat(file).doesNotExist();
+        assertThat(tempDir.resolve("groceries.csv.tmp")).doesNotExist();
+    }
+}
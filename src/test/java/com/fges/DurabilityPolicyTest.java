@@ -0,0 +1,66 @@
+package com.fges;
+
+import com.fges.model.GroceryItem;
+import com.fges.repository.CsvGroceryRepository;
+import com.fges.repository.DurabilityPolicy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DurabilityPolicyTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_parse_named_policies_and_intervals() {
+        // Act & Assert
+        assertThat(DurabilityPolicy.parse("always")).isSameAs(DurabilityPolicy.ALWAYS);
+        assertThat(DurabilityPolicy.parse("NEVER")).isSameAs(DurabilityPolicy.NEVER);
+        assertThat(DurabilityPolicy.parse("250ms")).hasToString("250ms");
+        assertThat(DurabilityPolicy.parse("100")).hasToString("100ms");
+        assertThatThrownBy(() -> DurabilityPolicy.parse("sometimes")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void should_sync_at_most_once_per_interval() {
+        // Arrange
+        DurabilityPolicy policy = DurabilityPolicy.interval(60_000);
+
+        // Act
+        boolean first = policy.shouldSync();
+        boolean second = policy.shouldSync();
+
+        // Assert
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(DurabilityPolicy.ALWAYS.shouldSync()).isTrue();
+        assertThat(DurabilityPolicy.NEVER.shouldSync()).isFalse();
+    }
+
+    @Test
+    void should_sync_the_last_write_of_a_burst_without_a_further_write() throws Exception {
+        // Arrange
+        DurabilityPolicy policy = DurabilityPolicy.interval(100);
+        try (CsvGroceryRepository repository = new CsvGroceryRepository(tempDir.resolve("groceries.csv").toString(), policy)) {
+            repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+            long firstSync = policy.lastSyncMillis();
+
+            // Act : écriture dans l'intervalle, non synchronisée tout de suite, et plus aucune ensuite
+            repository.addItem(new GroceryItem("Bread", 1, "bakery"));
+
+            // Assert : la tâche planifiée l'a synchronisée
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (policy.lastSyncMillis() == firstSync && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(firstSync).isPositive();
+            assertThat(policy.lastSyncMillis()).isGreaterThan(firstSync);
+        }
+    }
+}
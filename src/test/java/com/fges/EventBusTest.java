@@ -0,0 +1,81 @@
+package com.fges;
+
+import com.fges.core.BackpressurePolicy;
+import com.fges.core.Event;
+import com.fges.core.EventBus;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventBusTest {
+
+    private final EventBus eventBus = new EventBus();
+
+    @AfterEach
+    void shutdownBus() {
+        eventBus.shutdown();
+    }
+
+    @Test
+    void should_deliver_every_event_before_flush_returns() throws Exception {
+        // Arrange
+        AtomicInteger received = new AtomicInteger();
+        eventBus.subscribe("AddItemEvent", event -> {
+            Thread.sleep(1);
+            received.incrementAndGet();
+        });
+        eventBus.enableAsync(16, 2, BackpressurePolicy.BLOCK);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            eventBus.publish(event("AddItemEvent"));
+        }
+        eventBus.flush();
+
+        // Assert
+        assertThat(received.get()).isEqualTo(100);
+    }
+
+    @Test
+    void should_drop_events_when_queue_is_full() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger received = new AtomicInteger();
+        eventBus.subscribe("AddItemEvent", event -> {
+            release.await();
+            received.incrementAndGet();
+        });
+        eventBus.enableAsync(1, 1, BackpressurePolicy.DROP);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            eventBus.publish(event("AddItemEvent"));
+        }
+        release.countDown();
+        eventBus.flush();
+
+        // Assert
+        long dropped = eventBus.getDroppedEvents();
+        assertThat(dropped).isPositive();
+        assertThat(received.get() + dropped).isEqualTo(10);
+    }
+
+    private static Event event(String name) {
+        return new Event() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Object getPayload() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,118 @@
+package com.fges;
+
+import com.fges.model.GroceryItem;
+import com.fges.repository.DurabilityPolicy;
+import com.fges.repository.EventSourcedGroceryRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventSourcedGroceryRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_rebuild_state_by_replaying_events() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.events").toString();
+        EventSourcedGroceryRepository writer = new EventSourcedGroceryRepository(file);
+        writer.addItem(new GroceryItem("Milk", 2, "dairy"));
+        writer.addItem(new GroceryItem("Bread", 1, "bakery"));
+        writer.removeItem("milk");
+        writer.addItem(new GroceryItem("Eggs", 12, "dairy"));
+
+        // Act
+        var items = new EventSourcedGroceryRepository(file).getAllItems();
+
+        // Assert
+        assertThat(items.get("bakery")).containsExactly(new GroceryItem("Bread", 1, "bakery"));
+        assertThat(items.get("dairy")).containsExactly(new GroceryItem("Eggs", 12, "dairy"));
+    }
+
+    @Test
+    void should_snapshot_every_n_events_and_keep_the_full_journal() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.events");
+        EventSourcedGroceryRepository repository = new EventSourcedGroceryRepository(file.toString(), 3, DurabilityPolicy.NEVER);
+
+        // Act
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+        repository.addItem(new GroceryItem("Bread", 1, "bakery"));
+        boolean snapshotBeforeInterval = Files.exists(Path.of(file + ".snapshot"));
+        repository.addItem(new GroceryItem("Eggs", 12, "dairy"));
+        repository.addItem(new GroceryItem("Apples", 6, "fruits"));
+
+        // Assert
+        assertThat(snapshotBeforeInterval).isFalse();
+        assertThat(Path.of(file + ".snapshot")).exists();
+        assertThat(new EventSourcedGroceryRepository(file.toString()).getAllItems().values())
+                .flatMap(items -> items)
+                .hasSize(4);
+    }
+
+    @Test
+    void should_ignore_and_overwrite_a_torn_last_event() throws Exception {
+        // Arrange : arrêt pendant l'écriture d'un événement
+        Path file = tempDir.resolve("groceries.events");
+        new EventSourcedGroceryRepository(file.toString()).addItem(new GroceryItem("Milk", 2, "dairy"));
+        Files.write(file, new byte[]{0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+        // Act
+        EventSourcedGroceryRepository repository = new EventSourcedGroceryRepository(file.toString());
+        var beforeAppend = repository.getAllItems();
+        repository.addItem(new GroceryItem("Bread", 1, "bakery"));
+
+        // Assert
+        assertThat(beforeAppend.get("dairy")).containsExactly(new GroceryItem("Milk", 2, "dairy"));
+        assertThat(new EventSourcedGroceryRepository(file.toString()).findItems("bread"))
+                .containsExactly(new GroceryItem("Bread", 1, "bakery"));
+    }
+
+    @Test
+    void should_catch_up_with_events_appended_by_another_instance() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.events").toString();
+        EventSourcedGroceryRepository reader = new EventSourcedGroceryRepository(file);
+        EventSourcedGroceryRepository writer = new EventSourcedGroceryRepository(file);
+        writer.addItem(new GroceryItem("Milk", 2, "dairy"));
+        assertThat(reader.findItems("milk")).hasSize(1);
+
+        // Act
+        writer.removeItem("milk");
+        writer.addItem(new GroceryItem("Bread", 1, "bakery"));
+
+        // Assert
+        assertThat(reader.findItems("milk")).isEmpty();
+        assertThat(reader.findItems("bread")).hasSize(1);
+    }
+
+    @Test
+    void should_reload_when_the_journal_is_recreated_and_grows_past_the_known_position() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.events").toString();
+        EventSourcedGroceryRepository reader = new EventSourcedGroceryRepository(file);
+        EventSourcedGroceryRepository writer = new EventSourcedGroceryRepository(file);
+        writer.addItem(new GroceryItem("Milk", 2, "dairy"));
+        writer.addItem(new GroceryItem("Bread", 1, "bakery"));
+        assertThat(reader.findItems("milk")).hasSize(1);
+        long knownSize = Files.size(Path.of(file));
+
+        // Act : un autre processus supprime la liste et en écrit une plus longue
+        EventSourcedGroceryRepository other = new EventSourcedGroceryRepository(file);
+        other.deleteFile();
+        for (int i = 0; Files.notExists(Path.of(file)) || Files.size(Path.of(file)) <= knownSize; i++) {
+            other.addItem(new GroceryItem("Apple-" + i, i + 1, "fruits"));
+        }
+
+        // Assert
+        assertThat(reader.getAllItems()).isEqualTo(new EventSourcedGroceryRepository(file).getAllItems());
+        assertThat(reader.findItems("milk")).isEmpty();
+    }
+}
@@ -1,12 +1,15 @@
 package com.fges;
 
 import com.fges.commands.AddItemCommand;
+import com.fges.commands.BatchCommand;
 import com.fges.repository.GroceryRepositoryFactory;
 import com.fges.commands.DeleteFileCommand;
 import com.fges.commands.RemoveItemCommand;
 import com.fges.core.CommandBus;
+import com.fges.core.EventBus;
 import com.fges.core.QueryBus;
 import com.fges.handlers.AddItemCommandHandler;
+import com.fges.handlers.BatchCommandHandler;
 import com.fges.handlers.DeleteFileCommandHandler;
 import com.fges.handlers.InfoQueryHandler;
 import com.fges.handlers.ListItemsQueryHandler;
@@ -20,11 +23,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -36,6 +43,9 @@ public class GroceryCommandsTest {
     private final PrintStream originalErr = System.err;
     private Path tempFilePath;
     private GroceryRepository repository;
+    private EventBus eventBus;
+    private CommandBus commandBus;
+    private QueryBus queryBus;
 
     @BeforeEach
     public void setUpStreams() {
@@ -53,11 +63,15 @@ public class GroceryCommandsTest {
 
 
         // Enregistrer les handlers pour les commandes et requêtes
-        CommandBus.register(AddItemCommand.class, new AddItemCommandHandler(repository));
-        CommandBus.register(RemoveItemCommand.class, new RemoveItemCommandHandler(repository));
-        CommandBus.register(DeleteFileCommand.class, new DeleteFileCommandHandler(repository));
-        QueryBus.register(ListItemsQuery.class, new ListItemsQueryHandler(repository));
-        QueryBus.register(InfoQuery.class, new InfoQueryHandler());
+        eventBus = new EventBus();
+        commandBus = new CommandBus(eventBus);
+        queryBus = new QueryBus();
+        commandBus.register(AddItemCommand.class, new AddItemCommandHandler(repository));
+        commandBus.register(RemoveItemCommand.class, new RemoveItemCommandHandler(repository));
+        commandBus.register(DeleteFileCommand.class, new DeleteFileCommandHandler(repository));
+        commandBus.register(BatchCommand.class, new BatchCommandHandler(repository));
+        queryBus.register(ListItemsQuery.class, new ListItemsQueryHandler(repository));
+        queryBus.register(InfoQuery.class, new InfoQueryHandler());
     }
 
     @AfterEach
@@ -75,12 +89,12 @@ public class GroceryCommandsTest {
     public void testAddItems() throws Exception {
         // Ajouter un article
         AddItemCommand addCommand = new AddItemCommand("Milk", 2, "dairy");
-        int result = CommandBus.dispatch(addCommand);
+        int result = commandBus.dispatch(addCommand);
         assertEquals(0, result);
 
         // Vérifier que l'article a été ajouté
         ListItemsQuery listQuery = new ListItemsQuery();
-        result = QueryBus.dispatch(listQuery);
+        result = queryBus.dispatch(listQuery);
         assertEquals(0, result);
         assertTrue(outContent.toString().contains("Milk"));
         assertTrue(outContent.toString().contains("dairy"));
@@ -90,7 +104,7 @@ public class GroceryCommandsTest {
     public void testListEmptyList() throws Exception {
         // Tester la liste quand elle est vide
         ListItemsQuery listQuery = new ListItemsQuery();
-        int result = QueryBus.dispatch(listQuery);
+        int result = queryBus.dispatch(listQuery);
         assertEquals(0, result);
         assertTrue(outContent.toString().contains("No items found"));
     }
@@ -99,7 +113,7 @@ public class GroceryCommandsTest {
     public void testRemoveItem() throws Exception {
         // Ajouter un article
         AddItemCommand addCommand = new AddItemCommand("Bread", 1, "bakery");
-        int result = CommandBus.dispatch(addCommand);
+        int result = commandBus.dispatch(addCommand);
         assertEquals(0, result);
 
         // Vider le contenu de sortie pour le prochain test
@@ -107,13 +121,13 @@ public class GroceryCommandsTest {
 
         // Supprimer l'article
         RemoveItemCommand removeCommand = new RemoveItemCommand("Bread");
-        result = CommandBus.dispatch(removeCommand);
+        result = commandBus.dispatch(removeCommand);
         assertEquals(0, result);
 
         // Vérifier que l'article a été supprimé
         outContent.reset();
         ListItemsQuery listQuery = new ListItemsQuery();
-        result = QueryBus.dispatch(listQuery);
+        result = queryBus.dispatch(listQuery);
         assertEquals(0, result);
         assertTrue(outContent.toString().contains("No items found"));
     }
@@ -122,7 +136,7 @@ public class GroceryCommandsTest {
     public void testDeleteFile() throws Exception {
         // Ajouter un article
         AddItemCommand addCommand = new AddItemCommand("Cheese", 1, "dairy");
-        int result = CommandBus.dispatch(addCommand);
+        int result = commandBus.dispatch(addCommand);
         assertEquals(0, result);
 
         // Vider le contenu de sortie pour le prochain test
@@ -130,7 +144,7 @@ public class GroceryCommandsTest {
 
         // Supprimer le fichier
         DeleteFileCommand deleteCommand = new DeleteFileCommand();
-        result = CommandBus.dispatch(deleteCommand);
+        result = commandBus.dispatch(deleteCommand);
         assertEquals(0, result);
         assertTrue(outContent.toString().contains("File deleted successfully"));
 
@@ -138,11 +152,70 @@ public class GroceryCommandsTest {
         assertFalse(Files.exists(tempFilePath));
     }
 
+    @Test
+    public void testBatch() throws Exception {
+        // Un lot d'ajouts et de suppressions publie un événement par opération
+        List<String> events = new ArrayList<>();
+        eventBus.subscribe("AddItemEvent", event -> events.add(event.getName()));
+        eventBus.subscribe("RemoveItemEvent", event -> events.add(event.getName()));
+        BatchCommand batch = BatchInputParser.parse(new BufferedReader(new StringReader(
+                "add Milk 2 dairy\n" +
+                "# commentaire\n" +
+                "add \"Orange juice\" 1\n" +
+                "remove milk\n")), "default");
+
+        int result = commandBus.dispatch(batch);
+        assertEquals(0, result);
+        assertEquals(List.of("AddItemEvent", "AddItemEvent", "RemoveItemEvent"), events);
+
+        // Vérifier l'état final
+        outContent.reset();
+        result = queryBus.dispatch(new ListItemsQuery());
+        assertEquals(0, result);
+        assertTrue(outContent.toString().contains("Orange juice, 1"));
+        assertFalse(outContent.toString().contains("Milk"));
+    }
+
+    @Test
+    public void testListWithFilterAndPagination() throws Exception {
+        commandBus.dispatch(new AddItemCommand("Milk", 2, "dairy"));
+        commandBus.dispatch(new AddItemCommand("Mozzarella", 1, "dairy"));
+        commandBus.dispatch(new AddItemCommand("Butter", 3, "dairy"));
+        commandBus.dispatch(new AddItemCommand("Mango", 4, "fruits"));
+        outContent.reset();
+
+        // Deuxième article de la catégorie dairy commençant par "m"
+        int result = queryBus.dispatch(new ListItemsQuery(
+                new ListItemsQuery.Parameters("dairy", "m", 1, 1, ListItemsQuery.Sort.NONE)));
+        assertEquals(0, result);
+        String output = outContent.toString();
+        assertTrue(output.contains("Mozzarella, 1"));
+        assertFalse(output.contains("Milk"));
+        assertFalse(output.contains("Butter"));
+        assertFalse(output.contains("fruits"));
+    }
+
+    @Test
+    public void testListSortedByQuantity() throws Exception {
+        commandBus.dispatch(new AddItemCommand("Milk", 2, "dairy"));
+        commandBus.dispatch(new AddItemCommand("Butter", 3, "dairy"));
+        commandBus.dispatch(new AddItemCommand("Cheese", 1, "dairy"));
+        outContent.reset();
+
+        // Les deux plus grandes quantités
+        int result = queryBus.dispatch(new ListItemsQuery(
+                new ListItemsQuery.Parameters(null, null, 0, 2, ListItemsQuery.Sort.QUANTITY)));
+        assertEquals(0, result);
+        String output = outContent.toString();
+        assertTrue(output.indexOf("Butter, 3") < output.indexOf("Milk, 2"));
+        assertFalse(output.contains("Cheese"));
+    }
+
     @Test
     public void testInfo() throws Exception {
         // Tester la commande info
         InfoQuery infoQuery = new InfoQuery();
-        int result = QueryBus.dispatch(infoQuery);
+        int result = queryBus.dispatch(infoQuery);
         assertEquals(0, result);
 
         // Vérifier que les informations du système sont affichées
@@ -0,0 +1,87 @@
+package com.fges;
+
+import com.fges.daemon.DaemonClient;
+import com.fges.daemon.GroceryDaemon;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GroceryDaemonTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final PrintStream originalOut = System.out;
+    private final PrintStream originalErr = System.err;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+    private GroceryDaemon daemon;
+    private Thread serving;
+    private Path socket;
+
+    @BeforeEach
+    void startDaemon() throws Exception {
+        // Sorties capturées avant le démarrage : elles deviennent les sorties par défaut du démon
+        System.setOut(new PrintStream(output, true));
+        System.setErr(new PrintStream(errors, true));
+
+        socket = tempDir.resolve("grocery.sock");
+        daemon = new GroceryDaemon(socket);
+        serving = new Thread(() -> {
+            try {
+                daemon.serve();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        serving.start();
+        // Le message est écrit une fois le socket en écoute (le fichier existe un peu avant)
+        for (int i = 0; i < 100 && !errors.toString().contains("Daemon listening"); i++) {
+            Thread.sleep(20);
+        }
+    }
+
+    @AfterEach
+    void stopDaemon() throws Exception {
+        daemon.close();
+        serving.join(5000);
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+    }
+
+    @Test
+    void should_execute_commands_sent_by_the_client() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.json").toString();
+
+        // Act
+        int added = DaemonClient.send(socket, new String[]{"-s", file, "--socket", socket.toString(), "add", "Milk", "2"});
+        int listed = DaemonClient.send(socket, new String[]{"-s", file, "--socket", socket.toString(), "list"});
+
+        // Assert
+        assertThat(added).as(errors.toString()).isEqualTo(0);
+        assertThat(listed).isEqualTo(0);
+        assertThat(output.toString()).contains("Milk, 2");
+    }
+
+    @Test
+    void should_return_the_exit_code_and_errors_of_the_command() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.json").toString();
+
+        // Act
+        int exitCode = DaemonClient.send(socket, new String[]{"-s", file, "add", "Milk", "many"});
+
+        // Assert
+        assertThat(exitCode).isEqualTo(1);
+        assertThat(errors.toString()).contains("Quantity must be a number");
+    }
+}
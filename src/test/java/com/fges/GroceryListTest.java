@@ -0,0 +1,76 @@
+package com.fges;
+
+import com.fges.model.AddPolicy;
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GroceryListTest {
+
+    @Test
+    void should_find_item_by_name_ignoring_case() {
+        // Arrange
+        GroceryList list = new GroceryList();
+        list.add(new GroceryItem("Milk", 2, "dairy"));
+        list.add(new GroceryItem("Bread", 1, "bakery"));
+
+        // Act & Assert
+        assertThat(list.contains("MILK")).isTrue();
+        assertThat(list.find("milk")).containsExactly(new GroceryItem("Milk", 2, "dairy"));
+        assertThat(list.find("eggs")).isEmpty();
+    }
+
+    @Test
+    void should_remove_item_from_every_category_and_drop_empty_ones() {
+        // Arrange
+        GroceryList list = new GroceryList();
+        list.add(new GroceryItem("Milk", 2, "dairy"));
+        list.add(new GroceryItem("milk", 1, "breakfast"));
+        list.add(new GroceryItem("Eggs", 12, "dairy"));
+
+        // Act
+        int removed = list.remove("Milk");
+
+        // Assert
+        assertThat(removed).isEqualTo(2);
+        assertThat(list.size()).isEqualTo(1);
+        assertThat(list.toCategoryMap()).containsOnlyKeys("dairy");
+        assertThat(list.contains("milk")).isFalse();
+    }
+
+    @Test
+    void should_merge_quantity_of_item_already_in_category() {
+        // Arrange
+        GroceryList list = new GroceryList(AddPolicy.MERGE);
+        list.add(new GroceryItem("Milk", 2, "dairy"));
+
+        // Act
+        list.add(new GroceryItem("MILK", 3, "dairy"));
+        list.add(new GroceryItem("milk", 1, "breakfast"));
+
+        // Assert
+        assertThat(list.size()).isEqualTo(2);
+        assertThat(list.find("milk")).containsExactly(
+                new GroceryItem("Milk", 5, "dairy"),
+                new GroceryItem("milk", 1, "breakfast"));
+    }
+
+    @Test
+    void should_keep_one_entry_per_add_with_append_policy() {
+        // Arrange
+        GroceryList list = new GroceryList(AddPolicy.APPEND);
+        list.add(new GroceryItem("Milk", 2, "dairy"));
+
+        // Act
+        list.add(new GroceryItem("Milk", 3, "dairy"));
+
+        // Assert
+        assertThat(list.size()).isEqualTo(2);
+        assertThat(list.find("milk")).containsExactly(
+                new GroceryItem("Milk", 2, "dairy"),
+                new GroceryItem("Milk", 3, "dairy"));
+    }
+}
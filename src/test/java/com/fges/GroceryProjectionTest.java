@@ -0,0 +1,153 @@
+package com.fges;
+
+import com.fges.commands.AddItemCommand;
+import com.fges.commands.RemoveItemCommand;
+import com.fges.core.CommandBus;
+import com.fges.core.EventBus;
+import com.fges.handlers.AddItemCommandHandler;
+import com.fges.handlers.RemoveItemCommandHandler;
+import com.fges.metrics.Metrics;
+import com.fges.model.GroceryItem;
+import com.fges.model.GrocerySummary;
+import com.fges.projection.GroceryProjection;
+import com.fges.repository.GroceryRepository;
+import com.fges.repository.GroceryRepositoryFactory;
+import com.fges.repository.JsonGroceryRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class GroceryProjectionTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String file;
+    private Metrics metrics;
+    private CommandBus commandBus;
+    private GroceryProjection projection;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("groceries.json").toString();
+        metrics = new Metrics();
+        GroceryRepository repository = GroceryRepositoryFactory.createRepository(file, "json", metrics);
+
+        EventBus eventBus = new EventBus();
+        commandBus = new CommandBus(eventBus);
+        commandBus.register(AddItemCommand.class, new AddItemCommandHandler(repository));
+        commandBus.register(RemoveItemCommand.class, new RemoveItemCommandHandler(repository));
+        projection = new GroceryProjection(() -> repository);
+        projection.subscribeTo(eventBus);
+    }
+
+    @Test
+    void should_serve_reads_from_events_without_reading_the_store_again() throws Exception {
+        // Arrange
+        commandBus.dispatch(new AddItemCommand("Milk", 2, "dairy"));
+        projection.load();
+        long readsAfterLoad = metrics.getTimers().get("repository.read").getCount();
+
+        // Act
+        commandBus.dispatch(new AddItemCommand("Bread", 1, "bakery"));
+        commandBus.dispatch(new RemoveItemCommand("milk"));
+        var items = projection.getAllItems();
+
+        // Assert
+        assertThat(items).containsOnlyKeys("bakery");
+        assertThat(projection.findItems("bread")).containsExactly(new GroceryItem("Bread", 1, "bakery"));
+        assertThat(metrics.getTimers().get("repository.read").getCount()).isEqualTo(readsAfterLoad);
+    }
+
+    @Test
+    void should_maintain_totals_per_category_and_item() throws Exception {
+        // Arrange
+        projection.load();
+
+        // Act
+        commandBus.dispatch(new AddItemCommand("Milk", 2, "dairy"));
+        commandBus.dispatch(new AddItemCommand("Eggs", 12, "dairy"));
+        commandBus.dispatch(new AddItemCommand("Bread", 1, "bakery"));
+        commandBus.dispatch(new AddItemCommand("Milk", 1, "drinks"));
+        commandBus.dispatch(new RemoveItemCommand("eggs"));
+
+        // Assert
+        assertThat(projection.getCategoryTotals()).containsExactly(entry("dairy", 2L), entry("bakery", 1L), entry("drinks", 1L));
+        assertThat(projection.getItemQuantity("MILK")).isEqualTo(3);
+        assertThat(projection.getItemQuantity("eggs")).isZero();
+    }
+
+    @Test
+    void should_reload_when_another_process_changed_the_store() throws Exception {
+        // Arrange
+        commandBus.dispatch(new AddItemCommand("Milk", 2, "dairy"));
+        projection.load();
+
+        // Act : écriture hors du bus, comme par une autre commande en ligne de commande
+        new JsonGroceryRepository(file).addItem(new GroceryItem("Apples", 6, "fruits"));
+
+        // Assert
+        assertThat(projection.findItems("apples")).containsExactly(new GroceryItem("Apples", 6, "fruits"));
+    }
+
+    @Test
+    void should_read_the_store_until_loaded() throws Exception {
+        // Arrange
+        commandBus.dispatch(new AddItemCommand("Milk", 2, "dairy"));
+
+        // Act
+        var items = projection.getAllItems();
+
+        // Assert : la lecture passe au stockage
+        assertThat(items).isEqualTo(Map.of("dairy", List.of(new GroceryItem("Milk", 2, "dairy"))));
+        assertThat(metrics.getTimers().get("repository.read").getCount()).isPositive();
+    }
+
+    @Test
+    void should_not_attribute_an_external_write_to_the_next_command() throws Exception {
+        // Arrange
+        projection.load();
+        new JsonGroceryRepository(file).addItem(new GroceryItem("Apples", 6, "fruits"));
+
+        // Act
+        projection.detectExternalChanges();
+        commandBus.dispatch(new AddItemCommand("Milk", 2, "dairy"));
+
+        // Assert
+        assertThat(projection.getAllItems()).containsOnlyKeys("fruits", "dairy");
+        assertThat(projection.getItemQuantity("apples")).isEqualTo(6);
+    }
+
+    @Test
+    void should_summarize_from_counters_like_a_single_pass_over_the_store() throws Exception {
+        // Arrange
+        projection.load();
+        commandBus.dispatch(new AddItemCommand("Milk", 2, "dairy"));
+        commandBus.dispatch(new AddItemCommand("Eggs", 12, "dairy"));
+        commandBus.dispatch(new AddItemCommand("Bread", 1, "bakery"));
+        commandBus.dispatch(new AddItemCommand("milk", 3, "dairy"));
+        commandBus.dispatch(new AddItemCommand("Milk", 1, "drinks"));
+        commandBus.dispatch(new AddItemCommand("Apple", 4, "fruits"));
+        commandBus.dispatch(new RemoveItemCommand("apple"));
+
+        // Act
+        GrocerySummary summary = projection.summarize(2);
+
+        // Assert
+        assertThat(summary.distinctItems()).isEqualTo(3);
+        assertThat(summary.totalQuantity()).isEqualTo(19);
+        assertThat(summary.categoryCounts()).containsExactly(entry("dairy", 2), entry("bakery", 1), entry("drinks", 1));
+        assertThat(summary.topItems()).containsExactly(
+                new GrocerySummary.ItemTotal("Eggs", 12),
+                new GrocerySummary.ItemTotal("Milk", 6));
+        assertThat(summary).isEqualTo(GroceryRepositoryFactory.createRepository(file, "json").summarize(2));
+    }
+}
@@ -0,0 +1,149 @@
+package com.fges;
+
+import com.fges.commands.ExportCommand;
+import com.fges.handlers.ExportCommandHandler;
+import com.fges.model.GroceryItem;
+import com.fges.repository.DurabilityPolicy;
+import com.fges.repository.GroceryOperation;
+import com.fges.repository.GroceryRepository;
+import com.fges.repository.GroceryRepositoryFactory;
+import com.fges.repository.GroceryTransfer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GroceryTransferTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_copy_items_in_order_between_formats() throws Exception {
+        // Arrange
+        GroceryRepository source = GroceryRepositoryFactory.createRepository(tempDir.resolve("groceries.json").toString(), "json");
+        List<GroceryOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            operations.add(GroceryOperation.add(new GroceryItem("item-" + i, i + 1, i % 2 == 0 ? "dairy" : "bakery")));
+        }
+        source.applyAll(operations);
+        GroceryRepository target = GroceryRepositoryFactory.createUncachedRepository(
+                tempDir.resolve("groceries.csv").toString(), "csv", DurabilityPolicy.NEVER, null);
+
+        // Act
+        GroceryTransfer.Result result = new GroceryTransfer(7).transfer(source, target);
+
+        // Assert
+        assertThat(result.items()).isEqualTo(100);
+        assertThat(target.getAllItems()).isEqualTo(source.getAllItems());
+    }
+
+    @Test
+    void should_copy_the_merged_entries_of_a_legacy_snapshot() throws Exception {
+        // Arrange
+        // Un ancien snapshot peut contenir plusieurs entrées pour le même article : la lecture en flux les fusionne
+        Path legacy = tempDir.resolve("legacy.json");
+        Files.writeString(legacy, "{\"dairy\":[{\"name\":\"Milk\",\"quantity\":2},{\"name\":\"milk\",\"quantity\":3}],"
+                + "\"bakery\":[{\"name\":\"Bread\",\"quantity\":1}]}");
+        GroceryRepository source = GroceryRepositoryFactory.createUncachedRepository(
+                legacy.toString(), "json", DurabilityPolicy.NEVER, null);
+        GroceryRepository target = GroceryRepositoryFactory.createRepository(tempDir.resolve("groceries.bin").toString(), "bin");
+
+        // Act
+        GroceryTransfer.Result result = new GroceryTransfer(16).transfer(source, target);
+
+        // Assert
+        assertThat(result.items()).isEqualTo(2);
+        assertThat(target.getAllItems()).isEqualTo(Map.of(
+                "dairy", List.of(new GroceryItem("Milk", 5, "dairy")),
+                "bakery", List.of(new GroceryItem("Bread", 1, "bakery"))));
+    }
+
+    @Test
+    void should_report_write_failure_without_blocking_the_reader() throws Exception {
+        // Arrange
+        GroceryRepository source = GroceryRepositoryFactory.createRepository(tempDir.resolve("groceries.json").toString(), "json");
+        List<GroceryOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            operations.add(GroceryOperation.add(new GroceryItem("item-" + i, 1, "default")));
+        }
+        source.applyAll(operations);
+        GroceryRepository target = new FailingRepository();
+
+        // Act & Assert
+        assertThatThrownBy(() -> new GroceryTransfer(1).transfer(source, target))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Disk full");
+    }
+
+    @Test
+    void should_refuse_to_export_into_an_existing_list() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.json").toString();
+        GroceryRepositoryFactory.createRepository(file, "json").addItem(new GroceryItem("Milk", 2, "dairy"));
+        String export = tempDir.resolve("export.csv").toString();
+        ExportCommandHandler handler = new ExportCommandHandler(file, "json", null);
+        assertThat(handler.handle(new ExportCommand(export, "csv"))).isZero();
+
+        // Act
+        int exitCode = handler.handle(new ExportCommand(export, "csv"));
+
+        // Assert : le second export ne double pas les quantités
+        assertThat(exitCode).isEqualTo(1);
+        assertThat(GroceryRepositoryFactory.createRepository(export, "csv").findItems("milk"))
+                .containsExactly(new GroceryItem("Milk", 2, "dairy"));
+    }
+
+    /**
+     * Cible dont toutes les écritures échouent
+     */
+    private static class FailingRepository implements GroceryRepository {
+        @Override
+        public void addItem(GroceryItem item) throws IOException {
+            throw new IOException("Disk full");
+        }
+
+        @Override
+        public void removeItem(String itemName) throws IOException {
+            throw new IOException("Disk full");
+        }
+
+        @Override
+        public void applyAll(List<GroceryOperation> operations) throws IOException {
+            throw new IOException("Disk full");
+        }
+
+        @Override
+        public void deleteFile() {
+        }
+
+        @Override
+        public Map<String, List<GroceryItem>> getAllItems() {
+            return Map.of();
+        }
+
+        @Override
+        public boolean fileExists() {
+            return false;
+        }
+
+        @Override
+        public List<GroceryItem> findItems(String itemName) {
+            return List.of();
+        }
+
+        @Override
+        public List<Path> getStorageFiles() {
+            return List.of();
+        }
+    }
+}
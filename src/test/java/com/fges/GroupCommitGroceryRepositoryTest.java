@@ -0,0 +1,112 @@
+package com.fges;
+
+import com.fges.model.GroceryItem;
+import com.fges.repository.GroceryOperation;
+import com.fges.repository.GroupCommitGroceryRepository;
+import com.fges.repository.JsonGroceryRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GroupCommitGroceryRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_write_concurrent_mutations_in_a_few_batches() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.json").toString();
+        AtomicInteger writes = new AtomicInteger();
+        JsonGroceryRepository delegate = new JsonGroceryRepository(file) {
+            @Override
+            public void applyAll(List<GroceryOperation> operations) throws IOException {
+                writes.incrementAndGet();
+                super.applyAll(operations);
+            }
+        };
+        GroupCommitGroceryRepository repository = new GroupCommitGroceryRepository(delegate, 50);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            GroceryItem item = new GroceryItem("item" + i, 1, "default");
+            futures.add(executor.submit(() -> {
+                repository.addItem(item);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        repository.close();
+
+        // Assert
+        assertThat(writes.get()).isLessThan(100);
+        assertThat(new JsonGroceryRepository(file).getAllItems().get("default")).hasSize(100);
+    }
+
+    @Test
+    void should_serve_reads_from_memory() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.json").toString();
+        GroupCommitGroceryRepository repository = new GroupCommitGroceryRepository(new JsonGroceryRepository(file), 1);
+
+        // Act
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+        repository.removeItem("milk");
+        repository.addItem(new GroceryItem("Eggs", 12, "dairy"));
+        repository.close();
+
+        // Assert
+        assertThat(repository.findItems("eggs")).containsExactly(new GroceryItem("Eggs", 12, "dairy"));
+        assertThat(new JsonGroceryRepository(file).getAllItems()).isEqualTo(repository.getAllItems());
+    }
+
+    @Test
+    void should_leave_memory_unchanged_when_a_write_fails() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.json").toString();
+        JsonGroceryRepository delegate = new JsonGroceryRepository(file) {
+            @Override
+            public void applyAll(List<GroceryOperation> operations) throws IOException {
+                throw new IOException("Disk full");
+            }
+        };
+        GroupCommitGroceryRepository repository = new GroupCommitGroceryRepository(delegate, 1);
+
+        // Act & Assert
+        assertThatThrownBy(() -> repository.addItem(new GroceryItem("Milk", 2, "dairy")))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Disk full");
+        assertThat(repository.findItems("milk")).isEmpty();
+        repository.close();
+    }
+
+    @Test
+    void should_reject_mutations_once_closed() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.json").toString();
+        GroupCommitGroceryRepository repository = new GroupCommitGroceryRepository(new JsonGroceryRepository(file), 1);
+        repository.close();
+
+        // Act & Assert
+        assertThatThrownBy(() -> repository.addItem(new GroceryItem("Milk", 2, "dairy")))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Repository is closed");
+    }
+}
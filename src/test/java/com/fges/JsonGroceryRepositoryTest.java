@@ -0,0 +1,238 @@
+package com.fges;
+
+import com.fges.model.AddPolicy;
+import com.fges.model.GroceryItem;
+import com.fges.repository.DurabilityPolicy;
+import com.fges.repository.JsonGroceryRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonGroceryRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_append_mutations_to_log_without_rewriting_snapshot() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.json");
+        JsonGroceryRepository repository = new JsonGroceryRepository(file.toString());
+
+        // Act
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+        repository.addItem(new GroceryItem("Bread", 1, "bakery"));
+        repository.removeItem("bread");
+
+        // Assert
+        assertThat(file).doesNotExist();
+        assertThat(tempDir.resolve("groceries.json.log")).exists();
+        assertThat(repository.getAllItems().get("dairy")).containsExactly(new GroceryItem("Milk", 2, "dairy"));
+        assertThat(repository.getAllItems()).doesNotContainKey("bakery");
+    }
+
+    @Test
+    void should_compact_log_into_snapshot_when_threshold_is_reached() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.json");
+        JsonGroceryRepository repository = new JsonGroceryRepository(file.toString(), 1);
+
+        // Act
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+        repository.addItem(new GroceryItem("Eggs", 12, "dairy"));
+
+        // Assert
+        assertThat(tempDir.resolve("groceries.json.log")).doesNotExist();
+        assertThat(Files.readString(file)).contains("\"name\":\"Milk\"", "\"quantity\":12");
+        assertThat(repository.getAllItems().get("dairy")).containsExactly(
+                new GroceryItem("Milk", 2, "dairy"),
+                new GroceryItem("Eggs", 12, "dairy"));
+    }
+
+    @Test
+    void should_delete_snapshot_and_log() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.json");
+        JsonGroceryRepository repository = new JsonGroceryRepository(file.toString());
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+
+        // Act
+        repository.deleteFile();
+
+        // Assert
+        assertThat(repository.fileExists()).isFalse();
+    }
+
+    @Test
+    void should_read_legacy_snapshot_format() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.json");
+        Files.writeString(file, "{\"dairy\":[\"Milk, 2\"]}");
+        JsonGroceryRepository repository = new JsonGroceryRepository(file.toString());
+
+        // Act
+        repository.addItem(new GroceryItem("Eggs", 12, "dairy"));
+
+        // Assert
+        assertThat(repository.getAllItems().get("dairy")).containsExactly(
+                new GroceryItem("Milk", 2, "dairy"),
+                new GroceryItem("Eggs", 12, "dairy"));
+    }
+
+    @Test
+    void should_stream_snapshot_with_log_applied() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.json");
+        Files.writeString(file, "{\"dairy\":[{\"name\":\"Milk\",\"quantity\":2},{\"name\":\"Butter\",\"quantity\":1}],"
+                + "\"bakery\":[\"Bread, 1\"]}");
+        JsonGroceryRepository repository = new JsonGroceryRepository(file.toString());
+        repository.removeItem("butter");
+        repository.addItem(new GroceryItem("Cheese", 3, "dairy"));
+        repository.addItem(new GroceryItem("Apple", 5, "fruits"));
+        List<GroceryItem> visited = new ArrayList<>();
+
+        // Act
+        repository.forEachItem(visited::add);
+
+        // Assert
+        assertThat(visited).containsExactly(
+                new GroceryItem("Milk", 2, "dairy"),
+                new GroceryItem("Cheese", 3, "dairy"),
+                new GroceryItem("Bread", 1, "bakery"),
+                new GroceryItem("Apple", 5, "fruits"));
+    }
+
+    @Test
+    void should_merge_logged_additions_into_snapshot_items() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.json");
+        Files.writeString(file, "{\"dairy\":[{\"name\":\"Milk\",\"quantity\":2}]}");
+        JsonGroceryRepository repository = new JsonGroceryRepository(file.toString());
+        repository.addItem(new GroceryItem("milk", 3, "dairy"));
+        repository.addItem(new GroceryItem("Milk", 1, "breakfast"));
+        List<GroceryItem> visited = new ArrayList<>();
+
+        // Act
+        repository.forEachItem(visited::add);
+
+        // Assert
+        assertThat(visited).containsExactly(
+                new GroceryItem("Milk", 5, "dairy"),
+                new GroceryItem("Milk", 1, "breakfast"));
+        assertThat(repository.findItems("MILK")).containsExactlyElementsOf(visited);
+    }
+
+    @Test
+    void should_merge_duplicate_entries_of_a_legacy_snapshot_when_streaming() throws Exception {
+        // Arrange : ancien snapshot écrit en APPEND, avec deux entrées du même article
+        Path file = tempDir.resolve("groceries.json");
+        Files.writeString(file, "{\"dairy\":[{\"name\":\"Milk\",\"quantity\":2},{\"name\":\"Butter\",\"quantity\":1},"
+                + "{\"name\":\"milk\",\"quantity\":3}]}");
+        JsonGroceryRepository repository = new JsonGroceryRepository(file.toString());
+        repository.addItem(new GroceryItem("MILK", 4, "dairy"));
+        List<GroceryItem> visited = new ArrayList<>();
+
+        // Act
+        repository.forEachItem(visited::add);
+
+        // Assert
+        assertThat(visited).containsExactly(
+                new GroceryItem("Milk", 9, "dairy"),
+                new GroceryItem("Butter", 1, "dairy"));
+        assertThat(repository.getAllItems().get("dairy")).containsExactlyElementsOf(visited);
+    }
+
+    @Test
+    void should_keep_one_entry_per_add_with_the_append_policy_it_was_given() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.json");
+        JsonGroceryRepository repository = new JsonGroceryRepository(file.toString(), DurabilityPolicy.ALWAYS,
+                AddPolicy.APPEND);
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+        repository.addItem(new GroceryItem("Milk", 3, "dairy"));
+        List<GroceryItem> visited = new ArrayList<>();
+
+        // Act
+        repository.forEachItem(visited::add);
+
+        // Assert
+        assertThat(visited).containsExactly(
+                new GroceryItem("Milk", 2, "dairy"),
+                new GroceryItem("Milk", 3, "dairy"));
+        assertThat(repository.getAllItems().get("dairy")).containsExactlyElementsOf(visited);
+    }
+
+    @Test
+    void should_stop_streaming_when_visitor_returns_false() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.json");
+        JsonGroceryRepository repository = new JsonGroceryRepository(file.toString(), 1);
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+        repository.addItem(new GroceryItem("Eggs", 12, "dairy"));
+        List<GroceryItem> visited = new ArrayList<>();
+
+        // Act
+        repository.forEachItem(item -> {
+            visited.add(item);
+            return false;
+        });
+
+        // Assert
+        assertThat(visited).containsExactly(new GroceryItem("Milk", 2, "dairy"));
+    }
+
+    @Test
+    void should_drop_a_torn_log_line_before_appending() throws Exception {
+        // Arrange : arrêt pendant un ajout, la dernière ligne n'est pas terminée
+        Path file = tempDir.resolve("groceries.json");
+        JsonGroceryRepository repository = new JsonGroceryRepository(file.toString());
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+        Files.writeString(tempDir.resolve("groceries.json.log"), "{\"type\":\"ADD\",\"itemName\":\"Eg",
+                StandardOpenOption.APPEND);
+
+        // Act
+        repository.addItem(new GroceryItem("Bread", 1, "bakery"));
+
+        // Assert
+        assertThat(repository.getAllItems()).containsOnlyKeys("dairy", "bakery");
+        assertThat(Files.readString(tempDir.resolve("groceries.json.log"))).doesNotContain("Eg\"").endsWith("\n");
+    }
+
+    @Test
+    void should_fail_instead_of_returning_empty_list_when_snapshot_is_truncated() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.json");
+        Files.writeString(file, "{\"dairy\":[{\"name\":\"Milk\",\"quan");
+        JsonGroceryRepository repository = new JsonGroceryRepository(file.toString());
+
+        // Act & Assert
+        assertThatThrownBy(repository::getAllItems)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Corrupted grocery file");
+        assertThat(Files.readString(file)).startsWith("{\"dairy\"");
+    }
+
+    @Test
+    void should_replace_snapshot_atomically_when_compacting() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("groceries.json");
+        JsonGroceryRepository repository = new JsonGroceryRepository(file.toString(), 1, DurabilityPolicy.ALWAYS);
+
+        // Act
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+
+        // Assert
+        assertThat(tempDir.resolve("groceries.json.compact")).doesNotExist();
+        assertThat(repository.getAllItems().get("dairy")).containsExactly(new GroceryItem("Milk", 2, "dairy"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.fges;
+
+import com.fges.metrics.Metrics;
+import com.fges.model.GroceryItem;
+import com.fges.repository.JsonGroceryRepository;
+import com.fges.repository.LockingGroceryRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LockingGroceryRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_not_lose_updates_when_writers_share_the_file() throws Exception {
+        // Arrange : deux repositories indépendants sur le même fichier, chaque ajout réécrit le snapshot
+        String file = tempDir.resolve("groceries.json").toString();
+        List<LockingGroceryRepository> repositories = List.of(
+                new LockingGroceryRepository(new JsonGroceryRepository(file, 1), file),
+                new LockingGroceryRepository(new JsonGroceryRepository(file, 1), file));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // Act
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            LockingGroceryRepository repository = repositories.get(thread % 2);
+            int first = thread * 25;
+            futures.add(executor.submit(() -> {
+                for (int i = first; i < first + 25; i++) {
+                    repository.addItem(new GroceryItem("item-" + i, 1, "default"));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertThat(repositories.get(0).getAllItems().get("default")).hasSize(100);
+        assertThat(repositories.get(0).getMetrics().getExclusiveAcquisitions()).isGreaterThanOrEqualTo(100);
+    }
+
+    @Test
+    void should_time_out_when_lock_is_held_too_long() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.json").toString();
+        LockingGroceryRepository reader = new LockingGroceryRepository(new JsonGroceryRepository(file), file);
+        LockingGroceryRepository writer = new LockingGroceryRepository(new JsonGroceryRepository(file), file, 50);
+        writer.addItem(new GroceryItem("Milk", 2, "dairy"));
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread slowReader = new Thread(() -> {
+            try {
+                reader.forEachItem(item -> {
+                    reading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return false;
+                });
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        slowReader.start();
+        reading.await();
+
+        // Act & Assert
+        try {
+            assertThatThrownBy(() -> writer.addItem(new GroceryItem("Bread", 1, "bakery")))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("Timed out");
+            assertThat(writer.getMetrics().getTimeouts()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            slowReader.join();
+        }
+    }
+
+    @Test
+    void should_record_lock_wait_and_hold_times_in_the_shared_metrics() throws Exception {
+        // Arrange
+        String file = tempDir.resolve("groceries.json").toString();
+        Metrics metrics = new Metrics();
+        LockingGroceryRepository repository = new LockingGroceryRepository(new JsonGroceryRepository(file), file,
+                LockingGroceryRepository.DEFAULT_TIMEOUT_MILLIS, metrics);
+
+        // Act
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+        repository.getAllItems();
+
+        // Assert
+        assertThat(metrics.getTimers()).containsKeys("lock.exclusive.wait", "lock.exclusive.hold",
+                "lock.shared.wait", "lock.shared.hold");
+        assertThat(metrics.getTimers().get("lock.exclusive.hold").getCount()).isEqualTo(1);
+    }
+}
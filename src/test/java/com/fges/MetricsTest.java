@@ -0,0 +1,99 @@
+package com.fges;
+
+import com.fges.commands.RemoveItemCommand;
+import com.fges.core.CommandBus;
+import com.fges.core.EventBus;
+import com.fges.core.QueryBus;
+import com.fges.metrics.LatencyHistogram;
+import com.fges.metrics.Metrics;
+import com.fges.model.GroceryItem;
+import com.fges.queries.InfoQuery;
+import com.fges.repository.GroceryRepository;
+import com.fges.repository.GroceryRepositoryFactory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_report_percentiles_within_a_power_of_two() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // Act
+        for (int i = 1; i <= 99; i++) {
+            histogram.record(1_000);
+        }
+        histogram.record(1_000_000);
+
+        // Assert
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.getPercentileNanos(50)).isBetween(1_000L, 2_047L);
+        assertThat(histogram.getPercentileNanos(100)).isEqualTo(1_000_000L);
+        assertThat(histogram.getMaxNanos()).isEqualTo(1_000_000L);
+    }
+
+    @Test
+    void should_time_dispatch_and_count_failures_per_command_class() throws Exception {
+        // Arrange
+        Metrics metrics = new Metrics();
+        EventBus eventBus = new EventBus();
+        eventBus.setMetrics(metrics);
+        eventBus.subscribe("RemoveItemEvent", event -> { });
+        CommandBus commandBus = new CommandBus(eventBus);
+        commandBus.setMetrics(metrics);
+        commandBus.register(RemoveItemCommand.class, command -> "milk".equals(command.getItemName()) ? 0 : 1);
+
+        // Act
+        commandBus.dispatch(new RemoveItemCommand("milk"));
+        commandBus.dispatch(new RemoveItemCommand("bread"));
+
+        // Assert
+        assertThat(metrics.getTimers().get("command.RemoveItemCommand").getCount()).isEqualTo(2);
+        assertThat(metrics.getTimers().get("command.RemoveItemCommand.handler").getCount()).isEqualTo(2);
+        assertThat(metrics.getCounters().get("command.RemoveItemCommand.failures")).isEqualTo(1);
+        assertThat(metrics.getCounters().get("events.published")).isEqualTo(1);
+    }
+
+    @Test
+    void should_record_nothing_without_metrics() throws Exception {
+        // Arrange
+        Metrics metrics = new Metrics();
+        QueryBus queryBus = new QueryBus();
+        queryBus.register(InfoQuery.class, query -> 0);
+
+        // Act
+        queryBus.dispatch(new InfoQuery());
+
+        // Assert
+        assertThat(metrics.getTimers()).isEmpty();
+    }
+
+    @Test
+    void should_time_repository_accesses_and_report_the_storage_size_after_a_rewrite() throws Exception {
+        // Arrange
+        Metrics metrics = new Metrics();
+        Path file = tempDir.resolve("groceries.csv");
+        GroceryRepository repository = GroceryRepositoryFactory.createRepository(file.toString(), "csv", metrics);
+        repository.addItem(new GroceryItem("Milk", 2, "dairy"));
+        repository.addItem(new GroceryItem("Bread", 1, "bakery"));
+
+        // Act : la suppression réécrit un fichier plus petit
+        repository.removeItem("milk");
+        repository.getAllItems();
+
+        // Assert
+        assertThat(metrics.getTimers().get("repository.write").getCount()).isEqualTo(3);
+        assertThat(metrics.getTimers().get("repository.read").getCount()).isEqualTo(1);
+        assertThat(metrics.getGauges()).containsEntry("storage.size.groceries.csv", Files.size(file));
+    }
+}
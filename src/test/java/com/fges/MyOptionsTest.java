@@ -1,5 +1,7 @@
 package com.fges;
 
+import com.fges.queries.ListItemsQuery;
+
 import org.junit.jupiter.api.Test;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -67,4 +69,35 @@ class MyOptionsTest {
         // Assert
         assertThat(result).isFalse();
     }
+
+    @Test
+    void should_parse_list_options() {
+        // Arrange
+        MyOptions options = new MyOptions();
+        String[] args = {"-s", "groceries.json", "--prefix", "mi", "--offset", "10", "--limit", "5", "--sort", "name", "list"};
+
+        // Act
+        boolean result = options.parse(args);
+
+        // Assert
+        assertThat(result).isTrue();
+        assertThat(options.isCategorySet()).isFalse();
+        assertThat(options.getPrefix()).isEqualTo("mi");
+        assertThat(options.getOffset()).isEqualTo(10);
+        assertThat(options.getLimit()).isEqualTo(5);
+        assertThat(options.getSort()).isEqualTo(ListItemsQuery.Sort.NAME);
+    }
+
+    @Test
+    void should_fail_when_limit_is_not_a_number() {
+        // Arrange
+        MyOptions options = new MyOptions();
+        String[] args = {"-s", "groceries.json", "--limit", "ten", "list"};
+
+        // Act
+        boolean result = options.parse(args);
+
+        // Assert
+        assertThat(result).isFalse();
+    }
 }
@@ -0,0 +1,70 @@
+package com.fges;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.GrocerySummary;
+import com.fges.output.OutputFormat;
+import com.fges.output.OutputSink;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutputSinkTest {
+
+    @Test
+    void should_group_text_output_by_category_and_write_only_on_flush() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OutputSink sink = OutputFormat.TEXT.open(out);
+
+        // Act
+        sink.item(new GroceryItem("Milk", 2, "dairy"));
+        sink.item(new GroceryItem("Eggs", 12, "dairy"));
+        sink.item(new GroceryItem("Apple", 3, "fruits"));
+        int sizeBeforeFlush = out.size();
+        sink.flush();
+
+        // Assert
+        assertThat(sizeBeforeFlush).isZero();
+        assertThat(out.toString()).isEqualTo("# dairy:\n  Milk, 2\n  Eggs, 12\n# fruits:\n  Apple, 3\n");
+    }
+
+    @Test
+    void should_write_one_json_object_per_line() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OutputSink sink = OutputFormat.JSONL.open(out);
+
+        // Act
+        sink.item(new GroceryItem("Milk \"whole\"", 2, "dairy"));
+        sink.message("No items found.");
+        sink.flush();
+
+        // Assert
+        assertThat(out.toString()).isEqualTo(
+                "{\"name\":\"Milk \\\"whole\\\"\",\"quantity\":2,\"category\":\"dairy\"}\n"
+                        + "{\"message\":\"No items found.\"}\n");
+    }
+
+    @Test
+    void should_write_summary_as_a_single_json_object() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OutputSink sink = OutputFormat.JSONL.open(out);
+        GrocerySummary summary = new GrocerySummary(2, 14, Map.of("dairy", 2), Map.of("dairy", 14L),
+                List.of(new GrocerySummary.ItemTotal("Eggs", 12)));
+
+        // Act
+        sink.summary(summary);
+        sink.flush();
+
+        // Assert
+        assertThat(out.toString()).isEqualTo("{\"distinctItems\":2,\"totalQuantity\":14,"
+                + "\"categories\":[{\"category\":\"dairy\",\"items\":2,\"quantity\":14}],"
+                + "\"topItems\":[{\"name\":\"Eggs\",\"quantity\":12}]}\n");
+    }
+}